@@ -0,0 +1,128 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * An alias table (Walker's alias method, built with Vose's algorithm) for
+ * sampling from a {@link ProbabilityDistribution} in constant time, no matter
+ * how many distinct elements it has.
+ * <p>
+ * The table has one column per distinct element. Every column holds the same
+ * total weight, split between its own element (up to {@code threshold[i]})
+ * and at most one other "alias" element. A pick chooses a column uniformly and
+ * then one of its two elements, so it costs two numbers from the generator and
+ * no search at all.
+ * <p>
+ * <b>NOTE:</b> the probability of picking each element is the same as for
+ * {@link ProbabilityDistribution#pick(NumberGenerator)}, but the mapping from
+ * generated numbers to elements is completely different. The same sequence of
+ * numbers gives a different walk, so {@code ListNumberGenerator} paths and
+ * indices from {@link ProbabilityDistribution#index} are meaningless here.
+ * Only use this where the numbers are random and the walk need not be
+ * replayed by index.
+ *
+ * @param <T> the type of the elements in the distribution
+ */
+class AliasDistribution<T extends Comparable<T>> {
+
+    // INVARIANT: keys, threshold and alias all have the same length
+    private final Object[] keys;
+    // each column's weight is total; the column's own key owns the numbers
+    // below threshold[i] and alias[i] owns the rest
+    private final int[] threshold;
+    private final int[] alias;
+    private final int total;
+
+    /**
+     * Builds the alias table for the given records. Only
+     * {@link ProbabilityDistribution} creates these, through
+     * {@link ProbabilityDistribution#alias()}.
+     *
+     * @param records - the sorted association between keys and counts
+     */
+    AliasDistribution(SortedMap<T, Integer> records) {
+        int n = records.size();
+        this.keys = new Object[n];
+        this.threshold = new int[n];
+        this.alias = new int[n];
+
+        // scale every count by n so that each column holds exactly total
+        long[] scaled = new long[n];
+        int sum = 0;
+        int i = 0;
+        for (Map.Entry<T, Integer> entry : records.entrySet()) {
+            keys[i] = entry.getKey();
+            scaled[i] = (long) entry.getValue() * n;
+            sum += entry.getValue();
+            i++;
+        }
+        this.total = sum;
+
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (i = 0; i < n; i++) {
+            if (scaled[i] < total) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+        // pair each underfull column with an overfull one
+        while (smallSize > 0 && largeSize > 0) {
+            int s = small[--smallSize];
+            int l = large[--largeSize];
+            threshold[s] = (int) scaled[s];
+            alias[s] = l;
+            scaled[l] -= total - scaled[s];
+            if (scaled[l] < total) {
+                small[smallSize++] = l;
+            } else {
+                large[largeSize++] = l;
+            }
+        }
+        // whatever is left is exactly full (the arithmetic is exact)
+        while (largeSize > 0) {
+            int l = large[--largeSize];
+            threshold[l] = total;
+            alias[l] = l;
+        }
+        while (smallSize > 0) {
+            int s = small[--smallSize];
+            threshold[s] = total;
+            alias[s] = s;
+        }
+    }
+
+    /**
+     * @return the total number of recorded instances
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Picks an element with probability proportional to its count. Draws a
+     * column with {@code generator.next(size)} and then a position in that
+     * column with {@code generator.next(getTotal())}.
+     *
+     * @param generator - the source of numbers for the pick
+     * @return the chosen element of the distribution
+     * @throws IllegalArgumentException if the distribution is empty or a
+     *                                  number received from the generator is
+     *                                  out of range
+     */
+    @SuppressWarnings("unchecked")
+    public T pick(NumberGenerator generator) {
+        if (total == 0) {
+            throw new IllegalArgumentException("Cannot pick from an empty distribution");
+        }
+        int column = generator.next(keys.length);
+        int position = generator.next(total);
+        if (column < 0 || column >= keys.length || position < 0 || position >= total) {
+            throw new IllegalArgumentException("Generated number out of range");
+        }
+        return (T) keys[position < threshold[column] ? column : alias[column]];
+    }
+}
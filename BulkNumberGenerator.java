@@ -0,0 +1,86 @@
+package org.cis1200;
+
+import java.util.Objects;
+
+/**
+ * A {@link NumberGenerator} that can also produce raw random bits, and fill
+ * whole arrays of numbers with the same bound.
+ * <p>
+ * The bulk methods produce exactly the numbers that the same sequence of
+ * scalar calls would have produced, by making those calls. Walks do not use them: each
+ * step of a walk draws a single number whose bound depends on the token the
+ * walk has reached, so walks keep calling {@link #next(int)}.
+ */
+public interface BulkNumberGenerator extends NumberGenerator {
+
+    /**
+     * @return the next 32 bits of the generator's sequence; for a generator
+     *         that is not random, its next raw number
+     */
+    int nextBits();
+
+    /**
+     * Fills {@code buffer[from..to)} with the results of that many calls to
+     * {@link #nextBits()}.
+     *
+     * @param buffer - the array to fill (assumed not null)
+     * @param from   - the first index to fill
+     * @param to     - the index after the last one to fill
+     * @throws IndexOutOfBoundsException if the range is not within buffer
+     */
+    default void fillBits(int[] buffer, int from, int to) {
+        Objects.checkFromToIndex(from, to, buffer.length);
+        for (int i = from; i < to; i++) {
+            buffer[i] = nextBits();
+        }
+    }
+
+    /**
+     * Fills {@code buffer[from..to)} with the results of that many calls to
+     * {@link #next(int)} with the given bound.
+     *
+     * @param buffer - the array to fill (assumed not null)
+     * @param from   - the first index to fill
+     * @param to     - the index after the last one to fill
+     * @param bound  - the bound of every number
+     * @throws IndexOutOfBoundsException if the range is not within buffer
+     */
+    default void fill(int[] buffer, int from, int to, int bound) {
+        Objects.checkFromToIndex(from, to, buffer.length);
+        for (int i = from; i < to; i++) {
+            buffer[i] = next(bound);
+        }
+    }
+
+    /**
+     * Turns random bits into a number between 0 (inclusive) and bound
+     * (exclusive) with Lemire's nearly divisionless method: the bits are
+     * multiplied by the bound, and the high half of the product is the
+     * result. Only when the low half falls into the small range that would
+     * bias the result is a division needed, and then more bits are drawn from
+     * {@code g} until the low half is outside it, so every number is exactly
+     * equally likely.
+     *
+     * @param g     - the source of any further bits (assumed not null)
+     * @param bits  - 32 random bits
+     * @param bound - the bound of the result
+     * @return a number between 0 (inclusive) and bound (exclusive)
+     * @throws IllegalArgumentException if bound is not positive
+     */
+    static int bounded(BulkNumberGenerator g, int bits, int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        long m = (bits & 0xFFFFFFFFL) * bound;
+        int low = (int) m;
+        if (Integer.compareUnsigned(low, bound) < 0) {
+            // 2^32 mod bound low products are rejected
+            int threshold = Integer.remainderUnsigned(-bound, bound);
+            while (Integer.compareUnsigned(low, threshold) < 0) {
+                m = (g.nextBits() & 0xFFFFFFFFL) * bound;
+                low = (int) m;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+}
@@ -0,0 +1,95 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/** Tests for BulkNumberGenerator and its implementations */
+public class BulkNumberGeneratorTest {
+
+    private static final int[] BOUNDS = { 1, 2, 3, 7, 100, 1 << 20, (1 << 30) + 1, Integer.MAX_VALUE };
+
+    // checks that the bulk methods of two identical generators give the same
+    // numbers as the scalar ones
+    private static void assertBulkMatchesScalar(Supplier<BulkNumberGenerator> make) {
+        for (int bound : BOUNDS) {
+            BulkNumberGenerator scalar = make.get();
+            BulkNumberGenerator bulk = make.get();
+            int[] expected = new int[40];
+            for (int i = 5; i < 35; i++) {
+                expected[i] = scalar.next(bound);
+            }
+            int[] filled = new int[40];
+            bulk.fill(filled, 5, 35, bound);
+            assertArrayEquals(expected, filled);
+        }
+        BulkNumberGenerator scalar = make.get();
+        BulkNumberGenerator bulk = make.get();
+        int[] expected = new int[30];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = scalar.nextBits();
+        }
+        int[] filled = new int[30];
+        bulk.fillBits(filled, 0, 30);
+        assertArrayEquals(expected, filled);
+    }
+
+    @Test
+    public void testBulkMatchesScalar() {
+        assertBulkMatchesScalar(() -> new RandomNumberGenerator(19));
+        assertBulkMatchesScalar(() -> new ListNumberGenerator(new int[] { 3, -1, 50, 7 }));
+        assertBulkMatchesScalar(() -> new SplittableNumberGenerator(19));
+        assertBulkMatchesScalar(() -> StreamNumberGenerator.forStream(19, 3));
+    }
+
+    @Test
+    public void testRandomNumberGeneratorKeepsItsValues() {
+        Random r = new Random(19);
+        int[] filled = new int[20];
+        new RandomNumberGenerator(19).fill(filled, 0, 20, 13);
+        for (int n : filled) {
+            assertEquals(r.nextInt(13), n);
+        }
+    }
+
+    @Test
+    public void testBoundedRejectsBiasedProducts() {
+        // 0 * 3 has a low half of 0, which is below 2^32 mod 3 = 1, so the
+        // next bits are used: 2^31 * 3 = 1.5 * 2^32
+        int[] bits = { 0x80000000 };
+        int[] drawn = { 0 };
+        BulkNumberGenerator g = new BulkNumberGenerator() {
+            @Override
+            public int nextBits() {
+                return bits[drawn[0]++];
+            }
+
+            @Override
+            public int next(int bound) {
+                return BulkNumberGenerator.bounded(this, nextBits(), bound);
+            }
+        };
+        assertEquals(1, BulkNumberGenerator.bounded(g, 0, 3));
+        assertEquals(1, drawn[0]);
+        assertEquals(0, BulkNumberGenerator.bounded(g, 0, 1));
+        assertEquals(2, BulkNumberGenerator.bounded(g, -1, 3));
+        assertThrows(IllegalArgumentException.class, () -> BulkNumberGenerator.bounded(g, 5, 0));
+    }
+
+    @Test
+    public void testBoundedIsUniform() {
+        BulkNumberGenerator g = new SplittableNumberGenerator(23);
+        int[] counts = new int[6];
+        int[] buffer = new int[60000];
+        g.fill(buffer, 0, buffer.length, 6);
+        for (int n : buffer) {
+            counts[n]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10000) < 500, Arrays.toString(counts));
+        }
+    }
+}
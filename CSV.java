@@ -2,6 +2,7 @@ package org.cis1200;
 
 import java.io.BufferedReader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -200,4 +201,18 @@ public class CSV {
         return result;
     }
 
+    /**
+     * Given a {@code BufferedReader} of CSV data and a column index, returns
+     * an {@code Iterator} over all CSV fields appearing in that column, like
+     * {@link #csvFieldsAtColumn}. Unlike that method, lines are only read as
+     * the iterator advances, so the fields are never all held in memory.
+     *
+     * @param br        - a BufferedReader that represents tweets
+     * @param csvColumn - the index of the column in the CSV data
+     * @return an {@code Iterator} of CSV fields (none of which is null)
+     */
+    static Iterator<String> csvFieldIterator(BufferedReader br, int csvColumn) {
+        return new CSVColumnIterator(br, csvColumn);
+    }
+
 }
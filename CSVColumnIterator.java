@@ -0,0 +1,58 @@
+package org.cis1200;
+
+import java.io.BufferedReader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A lazy version of {@link CSV#csvFieldsAtColumn}: an {@code Iterator} over
+ * the fields at one column of CSV data that reads and parses one line at a
+ * time, through a {@link LineIterator}. Lines that have no field at the given
+ * column are skipped.
+ * <p>
+ * Only the current line is ever held in memory, so any amount of CSV data
+ * can be processed in constant space.
+ */
+class CSVColumnIterator implements Iterator<String> {
+
+    private final LineIterator lines;
+    private final int csvColumn;
+
+    // the next field to return, or null if it has not been found yet
+    private String nextField;
+
+    /**
+     * @param br        - a BufferedReader of CSV data
+     * @param csvColumn - the index of the column in the CSV data
+     * @throws IllegalArgumentException if br is null
+     */
+    CSVColumnIterator(BufferedReader br, int csvColumn) {
+        this.lines = new LineIterator(br);
+        this.csvColumn = csvColumn;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextField == null && lines.hasNext()) {
+            try {
+                nextField = CSV.extractColumn(lines.next(), csvColumn);
+            } catch (IndexOutOfBoundsException ignored) {
+            }
+        }
+        return nextField != null;
+    }
+
+    /**
+     * @return the next field at the column
+     * @throws NoSuchElementException if there are no more fields
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String field = nextField;
+        nextField = null;
+        return field;
+    }
+}
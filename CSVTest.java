@@ -5,9 +5,13 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.io.StringReader;
 import java.io.BufferedReader;
 
@@ -180,4 +184,24 @@ public class CSVTest {
         assertEquals(2, fields.size());
         assertEquals(listOfArray(expected), fields);
     }
+
+    @Test
+    public void testCSVFieldIteratorMatchesCSVFieldsAtColumn() {
+        String csvLines = "0,first,x\n" +
+                "short line\n" +
+                "1,\"second, quoted\",y\n" +
+                "2,third,z";
+        List<String> expected = CSV.csvFieldsAtColumn(
+                new BufferedReader(new StringReader(csvLines)), 1
+        );
+        Iterator<String> it = CSV.csvFieldIterator(
+                new BufferedReader(new StringReader(csvLines)), 1
+        );
+        List<String> fields = new ArrayList<>();
+        while (it.hasNext()) {
+            fields.add(it.next());
+        }
+        assertEquals(expected, fields);
+        assertThrows(NoSuchElementException.class, it::next);
+    }
 }
@@ -0,0 +1,343 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes the binary snapshot format of a {@link CompactMarkovChain},
+ * so that a trained chain can be loaded in one pass instead of being retrained
+ * from the CSV file.
+ * <p>
+ * A snapshot is a sequence of big-endian {@code int}s, followed by the UTF-8
+ * bytes of the tokens:
+ *
+ * <pre>
+ *  header:          MAGIC, VERSION, V (tokens), S (start tokens),
+ *                   E (bigrams), B (token bytes)
+ *  tokenEnd:        V ints, the end offset of each token in the token bytes
+ *  startIds:        S ints
+ *  startCumulative: S ints
+ *  rowStart:        V + 1 ints
+ *  successors:      E ints
+ *  cumulative:      E ints
+ *  tokens:          B bytes
+ * </pre>
+ *
+ * These are exactly the arrays of {@link CompactMarkovChain}, with tokens in
+ * ID order, so loading needs no sorting or re-counting. Every table starts at
+ * a multiple of 4 bytes, so the file can also be used in place once mapped
+ * into memory.
+ */
+class ChainSnapshot {
+
+    /** "MKCH" */
+    static final int MAGIC = 0x4D4B4348;
+    /** incremented whenever the layout changes */
+    static final int VERSION = 1;
+    /** number of ints in the header */
+    static final int HEADER_INTS = 6;
+
+    private ChainSnapshot() {
+    }
+
+    /**
+     * Writes the chain to the given file, replacing it. The snapshot is
+     * written to a temporary file first and then moved over the old one, so
+     * the file always holds either the old snapshot or the complete new one.
+     *
+     * @param chain - the chain to save
+     * @param file  - the file to write
+     * @throws IOException if the file cannot be written
+     */
+    static void save(CompactMarkovChain chain, Path file) throws IOException {
+        Vocabulary vocabulary = chain.vocabulary;
+        int v = vocabulary.size();
+        byte[][] tokens = new byte[v][];
+        int tokenBytes = 0;
+        for (int id = 0; id < v; id++) {
+            tokens[id] = vocabulary.token(id).getBytes(StandardCharsets.UTF_8);
+            tokenBytes += tokens[id].length;
+        }
+        int s = chain.startIds.length;
+        int e = chain.successors.length;
+        long ints = HEADER_INTS + v + 2L * s + (v + 1) + 2L * e;
+
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(ints * 4 + tokenBytes));
+        IntBuffer out = buffer.asIntBuffer();
+        out.put(MAGIC).put(VERSION).put(v).put(s).put(e).put(tokenBytes);
+        int end = 0;
+        for (byte[] token : tokens) {
+            end += token.length;
+            out.put(end);
+        }
+        out.put(chain.startIds).put(chain.startCumulative);
+        out.put(chain.rowStart);
+        out.put(chain.successors).put(chain.cumulative);
+        buffer.position(out.position() * 4);
+        for (byte[] token : tokens) {
+            buffer.put(token);
+        }
+        buffer.flip();
+        write(buffer, file);
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to the given file, replacing
+     * it. The bytes go to a temporary file next to it first, which is forced
+     * to disk and then moved into place, so a crash mid-write never leaves a
+     * truncated file behind.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    static void write(ByteBuffer buffer, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Moves {@code source} over {@code target} atomically, where the file
+     * system allows it, so that readers see either the old file or the new
+     * one.
+     *
+     * @throws IOException if the file cannot be moved
+     */
+    static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(
+                    source, target, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING
+            );
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a chain from the given file, with a single bulk read of the whole
+     * file.
+     *
+     * @param file - a file written by {@link #save}
+     * @return the chain that was saved
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     snapshot
+     */
+    static CompactMarkovChain load(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("snapshot too large: " + size + " bytes");
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("unexpected end of snapshot");
+                }
+            }
+        }
+        buffer.flip();
+        return read(buffer);
+    }
+
+    /**
+     * Decodes a snapshot from a buffer that holds the whole file. Every table
+     * is checked against the invariants of {@link CompactMarkovChain}, so a
+     * corrupt file is rejected here rather than failing later in a walk.
+     *
+     * @throws IOException if the buffer is not a valid snapshot
+     */
+    static CompactMarkovChain read(ByteBuffer buffer) throws IOException {
+        Header h = Header.read(buffer);
+        checkTables(buffer, h);
+        IntBuffer in = buffer.asIntBuffer();
+        in.position(HEADER_INTS);
+        int[] tokenEnd = new int[h.tokens];
+        in.get(tokenEnd);
+        int[] startIds = new int[h.starts];
+        int[] startCumulative = new int[h.starts];
+        in.get(startIds).get(startCumulative);
+        int[] rowStart = new int[h.tokens + 1];
+        in.get(rowStart);
+        int[] successors = new int[h.edges];
+        int[] cumulative = new int[h.edges];
+        in.get(successors).get(cumulative);
+
+        Vocabulary vocabulary = new Vocabulary();
+        byte[] bytes = new byte[h.tokenBytes];
+        buffer.position(h.tokenOffset());
+        buffer.get(bytes);
+        int start = 0;
+        for (int end : tokenEnd) {
+            vocabulary.intern(new String(bytes, start, end - start, StandardCharsets.UTF_8));
+            start = end;
+        }
+        return new CompactMarkovChain(
+                vocabulary, startIds, startCumulative, rowStart, successors, cumulative
+        );
+    }
+
+    /**
+     * Checks every table of a snapshot in place against the invariants of
+     * {@link CompactMarkovChain}, without copying them out of the buffer.
+     * A corrupt table would otherwise only fail once a walk reaches it, with
+     * an exception that callers expecting IOException do not catch.
+     *
+     * @param buffer - the whole file, positioned at its start
+     * @param h      - the header read from it
+     * @throws IOException if a table is corrupt
+     */
+    static void checkTables(ByteBuffer buffer, Header h) throws IOException {
+        IntBuffer in = buffer.asIntBuffer();
+        int tokenEnd = h.tokenEndOffset();
+        checkRunning(in, tokenEnd, tokenEnd + h.tokens, h.tokenBytes, false, "token offsets");
+        if ((h.tokens == 0 ? 0 : in.get(tokenEnd + h.tokens - 1)) != h.tokenBytes) {
+            throw new IOException("corrupt snapshot: token offsets");
+        }
+        checkRow(in, h.startIdsOffset(), h.startCumulativeOffset(), 0, h.starts, h.tokens,
+                "start tokens");
+        int rowStart = h.rowStartOffset();
+        if (in.get(rowStart) != 0 || in.get(rowStart + h.tokens) != h.edges) {
+            throw new IOException("corrupt snapshot: row offsets");
+        }
+        checkRunning(in, rowStart, rowStart + h.tokens + 1, h.edges, false, "row offsets");
+        for (int id = 0; id < h.tokens; id++) {
+            checkRow(in, h.successorsOffset(), h.cumulativeOffset(),
+                    in.get(rowStart + id), in.get(rowStart + id + 1), h.tokens, "bigrams");
+        }
+
+        // IDs must be in token order; this also rules out duplicates
+        byte[] utf8 = new byte[0];
+        String prev = null;
+        int start = 0;
+        for (int id = 0; id < h.tokens; id++) {
+            int end = in.get(tokenEnd + id);
+            if (utf8.length < end - start) {
+                utf8 = new byte[end - start];
+            }
+            buffer.get(h.tokenOffset() + start, utf8, 0, end - start);
+            String token = new String(utf8, 0, end - start, StandardCharsets.UTF_8);
+            if (prev != null && prev.compareTo(token) >= 0) {
+                throw new IOException("corrupt snapshot: tokens out of order");
+            }
+            prev = token;
+            start = end;
+        }
+    }
+
+    // checks that in[from..to) never decrease (or, if strict, always
+    // increase) and lie between 0 and max
+    private static void checkRunning(
+            IntBuffer in, int from, int to, int max, boolean strict, String table
+    ) throws IOException {
+        int prev = strict ? -1 : 0;
+        for (int i = from; i < to; i++) {
+            int value = in.get(i);
+            if (value < prev || (strict && value == prev) || value > max) {
+                throw new IOException("corrupt snapshot: " + table);
+            }
+            prev = value;
+        }
+    }
+
+    // checks row [from, to) of a distribution whose IDs start at in[ids] and
+    // running counts at in[running]: IDs that increase and are valid token
+    // IDs, with running counts that increase from above 0
+    private static void checkRow(
+            IntBuffer in, int ids, int running, int from, int to, int tokens, String table
+    ) throws IOException {
+        checkRunning(in, ids + from, ids + to, tokens - 1, true, table);
+        if (from < to && in.get(running + from) <= 0) {
+            throw new IOException("corrupt snapshot: " + table);
+        }
+        checkRunning(in, running + from, running + to, Integer.MAX_VALUE, true, table);
+    }
+
+    /** the counts in the header of a snapshot, and the layout they imply */
+    static final class Header {
+        final int tokens;
+        final int starts;
+        final int edges;
+        final int tokenBytes;
+
+        private Header(int tokens, int starts, int edges, int tokenBytes) {
+            this.tokens = tokens;
+            this.starts = starts;
+            this.edges = edges;
+            this.tokenBytes = tokenBytes;
+        }
+
+        /**
+         * Reads and validates the header at the start of the buffer.
+         *
+         * @throws IOException if the buffer is not a valid snapshot
+         */
+        static Header read(ByteBuffer buffer) throws IOException {
+            if (buffer.limit() < HEADER_INTS * 4) {
+                throw new IOException("not a chain snapshot");
+            }
+            IntBuffer in = buffer.asIntBuffer();
+            if (in.get(0) != MAGIC) {
+                throw new IOException("not a chain snapshot");
+            }
+            if (in.get(1) != VERSION) {
+                throw new IOException("unsupported snapshot version " + in.get(1));
+            }
+            Header h = new Header(in.get(2), in.get(3), in.get(4), in.get(5));
+            long ints = HEADER_INTS + 2L * h.tokens + 1 + 2L * h.starts + 2L * h.edges;
+            if (h.tokens < 0 || h.starts < 0 || h.edges < 0 || h.tokenBytes < 0
+                    || ints * 4 + h.tokenBytes != buffer.limit()) {
+                throw new IOException("corrupt snapshot header");
+            }
+            return h;
+        }
+
+        // int offsets of each table, for reading the file in place
+        int tokenEndOffset() {
+            return HEADER_INTS;
+        }
+
+        int startIdsOffset() {
+            return tokenEndOffset() + tokens;
+        }
+
+        int startCumulativeOffset() {
+            return startIdsOffset() + starts;
+        }
+
+        int rowStartOffset() {
+            return startCumulativeOffset() + starts;
+        }
+
+        int successorsOffset() {
+            return rowStartOffset() + tokens + 1;
+        }
+
+        int cumulativeOffset() {
+            return successorsOffset() + edges;
+        }
+
+        /** byte offset of the token bytes */
+        int tokenOffset() {
+            return (cumulativeOffset() + edges) * 4;
+        }
+    }
+}
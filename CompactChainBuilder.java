@@ -0,0 +1,148 @@
+package org.cis1200;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Trains a {@link CompactMarkovChain} directly, without building a
+ * {@link MarkovChain} first.
+ * <p>
+ * {@link MarkovChain#compact()} only shrinks a chain once it has been fully
+ * trained, so training still needs the {@code TreeMap} of
+ * {@code ProbabilityDistribution}s, with a tree node and a boxed count for
+ * every bigram, for the whole corpus. This builder instead interns tokens in
+ * a {@link Vocabulary} as they arrive and counts bigrams in a
+ * {@link LongIntHashMap} keyed by the pair of IDs, so training takes about 12
+ * bytes per distinct bigram plus one copy of each distinct token. On
+ * {@link #build()} the IDs are renumbered in token order and the counts are
+ * sorted into the CSR arrays, giving exactly the chain that
+ * {@code MarkovChain.compact()} would for the same sequences.
+ * <p>
+ * Building does not reset the builder, so it can be trained further and
+ * built again. This class is not thread-safe.
+ */
+class CompactChainBuilder {
+
+    // IDs in the order tokens were first seen, not token order
+    private final Vocabulary vocabulary = new Vocabulary();
+    // count of each start token, keyed by ID
+    private final LongIntHashMap startCounts = new LongIntHashMap();
+    // count of each bigram, keyed by (from << 32 | to)
+    private final LongIntHashMap bigramCounts = new LongIntHashMap();
+    private final int endId = vocabulary.intern(MarkovChain.END_TOKEN);
+
+    /**
+     * Trains a chain on the given sequences.
+     *
+     * @param trainingData - the sequences of tokens to train on (assumed not
+     *                     null)
+     * @return the trained chain
+     */
+    static CompactMarkovChain train(Iterable<? extends List<String>> trainingData) {
+        CompactChainBuilder builder = new CompactChainBuilder();
+        for (List<String> tweet : trainingData) {
+            builder.addSequence(tweet.iterator());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Trains on one sequence, like {@link MarkovChain#addSequence}. Does
+     * nothing if the sequence is empty.
+     *
+     * @param tweet an iterator representing one tweet of training data
+     * @throws IllegalArgumentException when the iterator or one of its tokens
+     *                                  is null
+     */
+    public void addSequence(Iterator<String> tweet) {
+        if (tweet == null) {
+            throw new IllegalArgumentException("Param is null");
+        }
+        if (!tweet.hasNext()) {
+            return;
+        }
+        int prev = vocabulary.intern(tweet.next());
+        startCounts.increment(prev);
+        while (tweet.hasNext()) {
+            int curr = vocabulary.intern(tweet.next());
+            bigramCounts.increment(pack(prev, curr));
+            prev = curr;
+        }
+        bigramCounts.increment(pack(prev, endId));
+    }
+
+    /**
+     * Builds the chain trained so far.
+     *
+     * @return a chain that produces the same walks as a {@code MarkovChain}
+     *         trained on the same sequences
+     */
+    public CompactMarkovChain build() {
+        // END_TOKEN is only a token of the chain once a sequence has ended
+        // with it
+        int used = bigramCounts.size() == 0 ? 0 : vocabulary.size();
+        String[] tokens = new String[used];
+        for (int id = 0; id < used; id++) {
+            tokens[id] = vocabulary.token(id);
+        }
+        Arrays.sort(tokens);
+        Vocabulary sorted = new Vocabulary();
+        // remap takes first-seen IDs to sorted IDs, and original the reverse
+        int[] remap = new int[used];
+        int[] original = new int[used];
+        for (String token : tokens) {
+            int id = vocabulary.id(token);
+            remap[id] = sorted.intern(token);
+            original[remap[id]] = id;
+        }
+
+        long[] starts = startCounts.keys();
+        int[] startIds = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            startIds[i] = remap[(int) starts[i]];
+        }
+        Arrays.sort(startIds);
+        int[] startCumulative = new int[starts.length];
+        int sum = 0;
+        for (int i = 0; i < startIds.length; i++) {
+            sum += startCounts.get(original[startIds[i]]);
+            startCumulative[i] = sum;
+        }
+
+        // sorting the renumbered pairs groups them into rows in token order
+        long[] edges = bigramCounts.keys();
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = pack(remap[(int) (edges[i] >>> 32)], remap[(int) edges[i]]);
+        }
+        Arrays.sort(edges);
+        int[] rowStart = new int[used + 1];
+        int[] successors = new int[edges.length];
+        int[] cumulative = new int[edges.length];
+        int row = -1;
+        for (int i = 0; i < edges.length; i++) {
+            int from = (int) (edges[i] >>> 32);
+            int to = (int) edges[i];
+            if (from != row) {
+                // tokens with no successors get empty rows
+                while (row < from) {
+                    rowStart[++row] = i;
+                }
+                sum = 0;
+            }
+            sum += bigramCounts.get(pack(original[from], original[to]));
+            successors[i] = to;
+            cumulative[i] = sum;
+        }
+        while (row < used) {
+            rowStart[++row] = edges.length;
+        }
+        return new CompactMarkovChain(
+                sorted, startIds, startCumulative, rowStart, successors, cumulative
+        );
+    }
+
+    private static long pack(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+}
@@ -0,0 +1,383 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * A frozen, compact copy of a trained {@link MarkovChain}.
+ * <p>
+ * Every token is interned once in a {@link Vocabulary}, and the chain is
+ * stored in primitive arrays in compressed-sparse-row (CSR) layout instead of
+ * a map of maps of boxed counts. For the illustrative example (see
+ * {@link MarkovChain}) the vocabulary, in token order, is
+ *
+ * <pre>
+ *  0:"!"  1:"&lt;END&gt;"  2:"?"  3:"a"  4:"and"  5:"banana"  6:"chair"  7:"table"
+ * </pre>
+ *
+ * and the bigrams are stored as:
+ *
+ * <pre>
+ *  rowStart:    {0, 1, 1, 2, 5, 6, 8, 9, 10}
+ *  successors:  {4, 1, 5, 6, 7, 3, 0, 2, 1, 4}
+ *  cumulative:  {1, 1, 2, 3, 4, 2, 1, 2, 1, 1}
+ * </pre>
+ *
+ * The successors of token {@code t} are at positions
+ * {@code rowStart[t]} up to (but excluding) {@code rowStart[t + 1]}, with
+ * {@code cumulative} holding the running count within that row. Because IDs
+ * are assigned in token order, every row is sorted exactly like the
+ * corresponding {@link ProbabilityDistribution}, so picking by index is a
+ * binary search that returns the same token as the original chain, and
+ * {@link #getWalk} follows the same walk for the same {@code NumberGenerator}.
+ * <p>
+ * Instances are immutable; to add training data, train a {@code MarkovChain}
+ * and compact it again.
+ */
+public class CompactMarkovChain implements MarkovModel, IdChain {
+
+    // INVARIANT: IDs are assigned in token order
+    final Vocabulary vocabulary;
+    /** ID of {@link MarkovChain#END_TOKEN}, or {@link Vocabulary#MISSING} */
+    final int endId;
+
+    // start token IDs in token order, with their running counts
+    final int[] startIds;
+    final int[] startCumulative;
+
+    // INVARIANT: rowStart has vocabulary.size() + 1 entries and is
+    // non-decreasing; successors and cumulative have rowStart[size] entries
+    final int[] rowStart;
+    final int[] successors;
+    final int[] cumulative;
+
+    /**
+     * Constructs a chain directly from its tables.
+     */
+    CompactMarkovChain(
+            Vocabulary vocabulary, int[] startIds, int[] startCumulative,
+            int[] rowStart, int[] successors, int[] cumulative
+    ) {
+        this.vocabulary = vocabulary;
+        this.endId = vocabulary.id(MarkovChain.END_TOKEN);
+        this.startIds = startIds;
+        this.startCumulative = startCumulative;
+        this.rowStart = rowStart;
+        this.successors = successors;
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * Compacts the given trained chain.
+     *
+     * @param mc - the chain to copy (assumed not null)
+     * @return a compact chain that produces the same walks as {@code mc}
+     */
+    public static CompactMarkovChain of(MarkovChain mc) {
+        return of(mc.startTokens, mc.bigramFrequencies);
+    }
+
+    /**
+     * Compacts the given start tokens and bigram frequencies.
+     */
+    static CompactMarkovChain of(
+            ProbabilityDistribution<String> startTokens,
+            Map<String, ProbabilityDistribution<String>> bigramFrequencies
+    ) {
+        // intern every token in sorted order, so that ID order is token order
+        SortedSet<String> tokens = new TreeSet<>(bigramFrequencies.keySet());
+        tokens.addAll(startTokens.keySet());
+        int edges = 0;
+        for (ProbabilityDistribution<String> pd : bigramFrequencies.values()) {
+            tokens.addAll(pd.keySet());
+            edges += pd.keySet().size();
+        }
+        Vocabulary vocabulary = new Vocabulary();
+        for (String token : tokens) {
+            vocabulary.intern(token);
+        }
+
+        int[] startIds = new int[startTokens.keySet().size()];
+        int[] startCumulative = new int[startIds.length];
+        fillRow(startTokens, vocabulary, startIds, startCumulative, 0);
+
+        int[] rowStart = new int[vocabulary.size() + 1];
+        int[] successors = new int[edges];
+        int[] cumulative = new int[edges];
+        int edge = 0;
+        for (int id = 0; id < vocabulary.size(); id++) {
+            rowStart[id] = edge;
+            ProbabilityDistribution<String> pd = bigramFrequencies.get(vocabulary.token(id));
+            if (pd != null) {
+                edge = fillRow(pd, vocabulary, successors, cumulative, edge);
+            }
+        }
+        rowStart[vocabulary.size()] = edge;
+        return new CompactMarkovChain(
+                vocabulary, startIds, startCumulative, rowStart, successors, cumulative
+        );
+    }
+
+    // copies pd into ids/running counts starting at position from, returning
+    // the position after the last entry
+    private static int fillRow(
+            ProbabilityDistribution<String> pd, Vocabulary vocabulary,
+            int[] ids, int[] running, int from
+    ) {
+        int sum = 0;
+        for (Map.Entry<String, Integer> entry : pd.getRecords().entrySet()) {
+            sum += entry.getValue();
+            ids[from] = vocabulary.id(entry.getKey());
+            running[from] = sum;
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Finds the position in {@code running[from..to)} whose range of indices
+     * contains {@code index}, where each range ends at its running count.
+     *
+     * @throws IllegalArgumentException if index is not less than the row total
+     *                                  or is negative
+     */
+    static int search(int[] running, int from, int to, int index) {
+        if (index < 0 || from == to || index >= running[to - 1]) {
+            throw new IllegalArgumentException(
+                    "Index has to be less than or " +
+                            "equal to the total " + "number of records in the PD"
+            );
+        }
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (running[mid] > index) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    @Override
+    public int startTotal() {
+        return startIds.length == 0 ? 0 : startCumulative[startIds.length - 1];
+    }
+
+    @Override
+    public int pickStart(int index) {
+        return startIds[search(startCumulative, 0, startIds.length, index)];
+    }
+
+    @Override
+    public int rowTotal(int id) {
+        int end = rowStart[id + 1];
+        return end == rowStart[id] ? 0 : cumulative[end - 1];
+    }
+
+    @Override
+    public int pickSuccessor(int id, int index) {
+        return successors[search(cumulative, rowStart[id], rowStart[id + 1], index)];
+    }
+
+    /**
+     * Saves this chain to a compact binary snapshot (see
+     * {@link ChainSnapshot}), replacing the contents of the file.
+     *
+     * @param file - the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        ChainSnapshot.save(this, file);
+    }
+
+    /**
+     * Loads a chain from a snapshot written by {@link #save}. This reads the
+     * file in one pass and does no training, so it is much faster than
+     * rebuilding the chain from the original tweets. The loaded chain is
+     * identical to the saved one, down to its {@code toString()}.
+     *
+     * @param file - the file to read
+     * @return the loaded chain
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     snapshot
+     */
+    public static CompactMarkovChain load(Path file) throws IOException {
+        return ChainSnapshot.load(file);
+    }
+
+    @Override
+    public int endId() {
+        return endId;
+    }
+
+    @Override
+    public String token(int id) {
+        return vocabulary.token(id);
+    }
+
+    /**
+     * @return the vocabulary of this chain, with IDs in token order
+     */
+    Vocabulary getVocabulary() {
+        return vocabulary;
+    }
+
+    @Override
+    public Iterator<String> getWalk(NumberGenerator ng) {
+        return new IdChainIterator(this, ng);
+    }
+
+    /**
+     * Gets the walk of {@link #getWalk(NumberGenerator)}, cut short by the
+     * given limits, and steered toward tokens that can end a walk once the
+     * limits are near (see {@link WalkLimits}).
+     *
+     * @param ng     the path to follow (assumed not null)
+     * @param limits the limits of the walk (assumed not null)
+     * @return a walk that reports why it stopped
+     */
+    @Override
+    public LimitedWalk getWalk(NumberGenerator ng, WalkLimits limits) {
+        return new LimitedWalk(getWalk(ng), limits, token -> {
+            int id = vocabulary.id(token);
+            return id != Vocabulary.MISSING && endId != Vocabulary.MISSING
+                    && Arrays.binarySearch(successors, rowStart[id], rowStart[id + 1], endId) >= 0;
+        });
+    }
+
+    /**
+     * Gets the same walk as {@link #getWalk}, as the IDs of its tokens (see
+     * {@link #token}). Stepping the walk allocates nothing.
+     *
+     * @param ng the path to follow (assumed not null)
+     * @return an iterator over the IDs of the tokens on that path
+     */
+    public PrimitiveIterator.OfInt getIdWalk(NumberGenerator ng) {
+        return new IdWalk(this, ng);
+    }
+
+    /**
+     * Follows the same walk as {@link #getWalk}, passing the ID of each token
+     * to {@code sink} in turn. Unlike {@link #getIdWalk}, this creates no
+     * iterator, so a whole walk allocates nothing.
+     *
+     * @param ng   the path to follow (assumed not null)
+     * @param sink receives the IDs of the tokens on that path (assumed not
+     *             null)
+     * @return the number of tokens in the walk
+     */
+    public int walkIds(NumberGenerator ng, IntConsumer sink) {
+        return IdWalk.walk(this, ng, sink);
+    }
+
+    /**
+     * Follows the same walk as {@link #walkIds}, but stops as soon as
+     * {@code sink} returns false, without drawing any further numbers. Each
+     * ID is offered to sink before its successor is drawn (see
+     * {@link IdWalk#walkWhile}).
+     *
+     * @param ng   the path to follow (assumed not null)
+     * @param sink is offered the IDs of the tokens on that path, and returns
+     *             whether to go on (assumed not null)
+     * @return -1 if sink stopped the walk; otherwise the number of tokens in
+     *         the walk, which is one less than the number offered if the walk
+     *         ended with an invalid choice
+     */
+    public int walkIdsWhile(NumberGenerator ng, IntPredicate sink) {
+        return IdWalk.walkWhile(this, ng, sink);
+    }
+
+    /**
+     * Gets a random walk through the chain.
+     *
+     * @return an {@code Iterator} that yields the tokens on that path
+     */
+    public Iterator<String> getRandomWalk() {
+        return getWalk(new RandomNumberGenerator());
+    }
+
+    /**
+     * Generate a list of numbers such that if it is installed as the number
+     * generator for {@link #getWalk}, the tokens returned in sequence will be
+     * the list of provided tokens. Unlike
+     * {@link MarkovChain#findWalkChoices}, the given list is not modified.
+     *
+     * @param tokens an ordered list of tokens that the chain should generate
+     * @return a list of integers representing a walk through the chain that
+     *         produces the given sequence of tokens
+     * @throws IllegalArgumentException when {@code tokens} is null or empty,
+     *                                  or is not a walk of the chain ending in
+     *                                  {@code END_TOKEN}
+     */
+    @Override
+    public List<Integer> findWalkChoices(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty or null tokens");
+        }
+        List<Integer> choices = new ArrayList<>(tokens.size() + 1);
+        Iterator<String> it = tokens.iterator();
+        int curr = vocabulary.id(it.next());
+        choices.add(indexOf(startIds, startCumulative, 0, startIds.length, curr));
+        while (curr != endId) {
+            int next = it.hasNext() ? vocabulary.id(it.next()) : endId;
+            choices.add(indexOf(successors, cumulative, rowStart[curr], rowStart[curr + 1], next));
+            curr = next;
+        }
+        if (it.hasNext()) {
+            throw new IllegalArgumentException("tokens continue after " + MarkovChain.END_TOKEN);
+        }
+        return choices;
+    }
+
+    // the index that picks id from the row ids[from..to), which is sorted
+    // by ID
+    private static int indexOf(int[] ids, int[] running, int from, int to, int id) {
+        int i = id == Vocabulary.MISSING ? -1 : Arrays.binarySearch(ids, from, to, id);
+        if (i < 0) {
+            throw new IllegalArgumentException("token is not a valid step of the walk");
+        }
+        return i == from ? 0 : running[i - 1];
+    }
+
+    // appends a row in the format of ProbabilityDistribution#toString
+    private void appendRow(StringBuilder res, int[] ids, int[] running, int from, int to) {
+        res.append("{");
+        for (int i = from; i < to; i++) {
+            res.append(" \"");
+            res.append(vocabulary.token(ids[i]));
+            res.append("\":");
+            res.append(i == from ? running[i] : running[i] - running[i - 1]);
+            res.append(" ");
+        }
+        res.append("}");
+    }
+
+    /**
+     * Prints the chain in exactly the same format as
+     * {@link MarkovChain#toString()}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder();
+        res.append("startTokens: ");
+        appendRow(res, startIds, startCumulative, 0, startIds.length);
+        res.append("\nbigramFrequencies:\n");
+        for (int id = 0; id < vocabulary.size(); id++) {
+            if (rowStart[id] == rowStart[id + 1]) {
+                continue;
+            }
+            res.append("\"");
+            res.append(vocabulary.token(id));
+            res.append("\":\t");
+            appendRow(res, successors, cumulative, rowStart[id], rowStart[id + 1]);
+            res.append("\n");
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,284 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/** Tests for CompactMarkovChain */
+public class CompactMarkovChainTest {
+
+    private static final String[] TWEET_1 = { "a", "table", "and", "a", "chair" };
+    private static final String[] TWEET_2 = { "a", "banana", "!", "and", "a", "banana", "?" };
+
+    private static MarkovChain illustrativeExample() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.stream(TWEET_1).iterator());
+        mc.addSequence(Arrays.stream(TWEET_2).iterator());
+        return mc;
+    }
+
+    // a chain with many tokens that share successors
+    static MarkovChain randomChain(long seed, int tweets, int words) {
+        Random r = new Random(seed);
+        MarkovChain mc = new MarkovChain();
+        for (int i = 0; i < tweets; i++) {
+            List<String> tweet = new ArrayList<>();
+            int length = 1 + r.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                tweet.add(r.nextInt(5) == 0 ? "." : "w" + r.nextInt(words));
+            }
+            mc.addSequence(tweet.iterator());
+        }
+        return mc;
+    }
+
+    private static List<String> walk(Iterator<String> it) {
+        List<String> tokens = new ArrayList<>();
+        while (it.hasNext()) {
+            tokens.add(it.next());
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testIllustrativeExampleLayout() {
+        CompactMarkovChain cmc = illustrativeExample().compact();
+        assertEquals(8, cmc.vocabulary.size());
+        assertEquals("!", cmc.vocabulary.token(0));
+        assertEquals(1, cmc.endId);
+        assertArrayEquals(new int[] { 0, 1, 1, 2, 5, 6, 8, 9, 10 }, cmc.rowStart);
+        assertArrayEquals(new int[] { 4, 1, 5, 6, 7, 3, 0, 2, 1, 4 }, cmc.successors);
+        assertArrayEquals(new int[] { 1, 1, 2, 3, 4, 2, 1, 2, 1, 1 }, cmc.cumulative);
+    }
+
+    @Test
+    public void testToStringMatchesMarkovChain() {
+        MarkovChain mc = illustrativeExample();
+        assertEquals(mc.toString(), mc.compact().toString());
+        MarkovChain big = randomChain(1200, 300, 40);
+        assertEquals(big.toString(), big.compact().toString());
+        assertEquals(new MarkovChain().toString(), new MarkovChain().compact().toString());
+    }
+
+    @Test
+    public void testSameWalksAsMarkovChain() {
+        MarkovChain mc = randomChain(1600, 300, 40);
+        CompactMarkovChain cmc = mc.compact();
+        for (long seed = 0; seed < 200; seed++) {
+            assertEquals(
+                    walk(mc.getWalk(new RandomNumberGenerator(seed))),
+                    walk(cmc.getWalk(new RandomNumberGenerator(seed)))
+            );
+        }
+    }
+
+    @Test
+    public void testFindWalkChoices() {
+        CompactMarkovChain cmc = illustrativeExample().compact();
+        List<String> tokens = Arrays.asList("a", "banana", "!", "and", "a", "chair");
+        List<Integer> choices = cmc.findWalkChoices(tokens);
+        assertEquals(Arrays.asList(0, 0, 0, 0, 0, 2, 0), choices);
+        // the input is left untouched
+        assertEquals(6, tokens.size());
+        assertEquals(tokens, walk(cmc.getWalk(new ListNumberGenerator(choices))));
+    }
+
+    @Test
+    public void testFindWalkChoicesInvalid() {
+        CompactMarkovChain cmc = illustrativeExample().compact();
+        assertThrows(IllegalArgumentException.class, () -> cmc.findWalkChoices(null));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> cmc.findWalkChoices(new ArrayList<>())
+        );
+        // "table" does not start a tweet
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> cmc.findWalkChoices(Arrays.asList("table", "and"))
+        );
+        // "a" cannot end a tweet
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> cmc.findWalkChoices(Arrays.asList("a", "banana", "!", "and", "a"))
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> cmc.findWalkChoices(Arrays.asList("a", "lamp"))
+        );
+    }
+
+    @Test
+    public void testEmptyChain() {
+        Iterator<String> walk = new MarkovChain().compact().getWalk(
+                new ListNumberGenerator(new int[] { 0 })
+        );
+        assertFalse(walk.hasNext());
+        assertThrows(NoSuchElementException.class, walk::next);
+    }
+
+    @Test
+    public void testBuilderMatchesCompact() {
+        Random r = new Random(2400);
+        MarkovChain mc = new MarkovChain();
+        CompactChainBuilder builder = new CompactChainBuilder();
+        for (int i = 0; i < 300; i++) {
+            List<String> tweet = new ArrayList<>();
+            int length = r.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                tweet.add(r.nextInt(5) == 0 ? "." : "w" + r.nextInt(40));
+            }
+            mc.addSequence(tweet.iterator());
+            builder.addSequence(tweet.iterator());
+        }
+        CompactMarkovChain expected = mc.compact();
+        CompactMarkovChain built = builder.build();
+        assertEquals(expected.toString(), built.toString());
+        assertArrayEquals(expected.rowStart, built.rowStart);
+        assertArrayEquals(expected.successors, built.successors);
+        assertArrayEquals(expected.cumulative, built.cumulative);
+        assertArrayEquals(expected.startIds, built.startIds);
+        assertArrayEquals(expected.startCumulative, built.startCumulative);
+        assertEquals(expected.endId, built.endId);
+
+        assertEquals(
+                illustrativeExample().toString(),
+                CompactChainBuilder.train(Arrays.asList(
+                        Arrays.asList(TWEET_1), Arrays.asList(TWEET_2)
+                )).toString()
+        );
+        assertEquals(new MarkovChain().toString(), new CompactChainBuilder().build().toString());
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new CompactChainBuilder().addSequence(null)
+        );
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        MarkovChain mc = randomChain(1200, 300, 40);
+        CompactMarkovChain cmc = mc.compact();
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            cmc.save(file);
+            CompactMarkovChain loaded = CompactMarkovChain.load(file);
+            assertEquals(mc.toString(), loaded.toString());
+            for (long seed = 0; seed < 50; seed++) {
+                assertEquals(
+                        walk(cmc.getWalk(new RandomNumberGenerator(seed))),
+                        walk(loaded.getWalk(new RandomNumberGenerator(seed)))
+                );
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSnapshotUnicodeAndEmpty() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("caf\u00e9", "\ud83d\ude00", "!").iterator());
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            mc.compact().save(file);
+            assertEquals(mc.toString(), CompactMarkovChain.load(file).toString());
+            new MarkovChain().compact().save(file);
+            assertEquals(new MarkovChain().toString(), CompactMarkovChain.load(file).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSnapshotRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            Files.write(file, "startTokens: { }".getBytes());
+            assertThrows(IOException.class, () -> CompactMarkovChain.load(file));
+            illustrativeExample().compact().save(file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(IOException.class, () -> CompactMarkovChain.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+
+    // saves the illustrative example, then overwrites one int of it
+    static void corrupt(Path file, int index, int value) throws IOException {
+        illustrativeExample().compact().save(file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.putInt(index * 4, value);
+        Files.write(file, bytes.array());
+    }
+
+    // saves the illustrative example with two tokens out of order
+    static void corruptTokenOrder(Path file) throws IOException {
+        illustrativeExample().compact().save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        int last = bytes.length - "table".length();
+        bytes[last] = 'A';
+        Files.write(file, bytes);
+    }
+
+    // the illustrative example has 8 tokens, 1 start token and 10 bigrams, so
+    // the tables start at these int offsets
+    private static final int TOKEN_END = ChainSnapshot.HEADER_INTS;
+    private static final int START_IDS = TOKEN_END + 8;
+    private static final int START_CUMULATIVE = START_IDS + 1;
+    private static final int ROW_START = START_CUMULATIVE + 1;
+    private static final int SUCCESSORS = ROW_START + 9;
+    private static final int CUMULATIVE = SUCCESSORS + 10;
+
+    /** {int offset, value} pairs that each break one table of the example */
+    static final int[][] CORRUPTIONS = {
+        { TOKEN_END, 1000 }, { TOKEN_END + 1, 0 }, { START_IDS, 8 },
+        { START_IDS, -1 }, { START_CUMULATIVE, 0 }, { ROW_START + 8, 11 },
+        { ROW_START + 2, 0 }, { SUCCESSORS, 99 }, { SUCCESSORS + 3, 5 },
+        { CUMULATIVE + 3, 2 }, { CUMULATIVE, -4 }
+    };
+
+    @Test
+    public void testSnapshotRejectsCorruptTables() throws IOException {
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            for (int[] corruption : CORRUPTIONS) {
+                corrupt(file, corruption[0], corruption[1]);
+                assertThrows(
+                        IOException.class, () -> CompactMarkovChain.load(file),
+                        Arrays.toString(corruption)
+                );
+            }
+            // swapping two tokens breaks the token order
+            corruptTokenOrder(file);
+            assertThrows(IOException.class, () -> CompactMarkovChain.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSnapshotSaveReplacesFile() throws IOException {
+        Path dir = Files.createTempDirectory("chains");
+        Path file = dir.resolve("chain.snapshot");
+        try {
+            Files.write(file, "old contents that are longer than the snapshot".getBytes());
+            MarkovChain mc = illustrativeExample();
+            mc.compact().save(file);
+            assertEquals(mc.toString(), CompactMarkovChain.load(file).toString());
+            // no temporary files are left behind
+            try (java.util.stream.Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A frozen, read-only snapshot of a {@link ProbabilityDistribution}.
+ * <p>
+ * The keys are stored in a sorted array, next to a prefix-sum array of their
+ * counts. For the distribution printed as:
+ *
+ * <pre>
+ * { "banana": 2  "chair":1  "table":1 }
+ * </pre>
+ *
+ * the compiled form holds:
+ *
+ * <pre>
+ * keys:       {"banana", "chair", "table"}
+ * cumulative: {    2   ,    3   ,    4   }
+ * </pre>
+ *
+ * Entry {@code i} owns the indices from {@code cumulative[i - 1]} (or 0) up to
+ * but excluding {@code cumulative[i]}, so {@link #pick(int)} is a binary
+ * search instead of a walk over every entry. Because the keys are kept in the
+ * same sorted order as the {@code TreeMap} of the original distribution,
+ * {@code pick} returns exactly the same element for the same index.
+ *
+ * @param <T> the type of the elements in the distribution
+ */
+class CompiledDistribution<T extends Comparable<T>> {
+
+    // INVARIANT: keys are sorted, distinct and never null
+    private final Object[] keys;
+    // INVARIANT: cumulative is strictly increasing, has the same length as keys
+    // and cumulative[i] is the sum of the counts of keys[0..i]
+    private final int[] cumulative;
+
+    /**
+     * Compiles the given records. Only {@link ProbabilityDistribution} creates
+     * these, through {@link ProbabilityDistribution#compile()}.
+     *
+     * @param records - the sorted association between keys and counts
+     */
+    CompiledDistribution(SortedMap<T, Integer> records) {
+        this.keys = new Object[records.size()];
+        this.cumulative = new int[records.size()];
+        int i = 0;
+        int sum = 0;
+        for (Map.Entry<T, Integer> entry : records.entrySet()) {
+            sum += entry.getValue();
+            keys[i] = entry.getKey();
+            cumulative[i] = sum;
+            i++;
+        }
+    }
+
+    /**
+     * @return the total number of recorded instances
+     */
+    public int getTotal() {
+        return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * @return the number of distinct elements in the distribution
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Picks an element according to the provided NumberGenerator. See
+     * {@link ProbabilityDistribution#pick(NumberGenerator)}.
+     *
+     * @param generator - uses the generator to pick a particular element
+     * @return the chosen element of the distribution
+     * @throws IllegalArgumentException if a number received from the generator
+     *                                  is out of range
+     */
+    public T pick(NumberGenerator generator) {
+        return pick(generator.next(getTotal()));
+    }
+
+    /**
+     * Picks an element out of the distribution non-randomly according to the
+     * provided index. See {@link ProbabilityDistribution#pick(int)} for how
+     * indices map to elements.
+     *
+     * @param index - use this to pick a particular element
+     * @return the chosen element of the distribution
+     * @throws IllegalArgumentException if index is less than zero or not less
+     *                                  than the total number of records
+     */
+    @SuppressWarnings("unchecked")
+    public T pick(int index) {
+        return (T) keys[slot(index)];
+    }
+
+    /**
+     * Finds the position in the key array of the element that owns the given
+     * index.
+     *
+     * @param index - a weighted index into the distribution
+     * @return the position of the owning key
+     * @throws IllegalArgumentException if index is out of range
+     */
+    int slot(int index) {
+        if (index >= getTotal() || index < 0) {
+            throw new IllegalArgumentException(
+                    "Index has to be less than or " +
+                            "equal to the total " + "number of records in the PD"
+            );
+        }
+        // find the first entry whose cumulative count is greater than index
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] > index) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Counts the number of occurrences of an element.
+     *
+     * @param t - the element you want to get the count of
+     * @return the number of occurrences of the provided element
+     * @throws IllegalArgumentException when t is not in the distribution
+     */
+    public int count(T t) {
+        int i = find(t);
+        return i == 0 ? cumulative[0] : cumulative[i] - cumulative[i - 1];
+    }
+
+    /**
+     * Returns the index of the element such that pick(index) will return the
+     * element.
+     *
+     * @param element - the element to find the index of
+     * @return the index of the specified element
+     * @throws IllegalArgumentException if the element is not in the
+     *                                  distribution
+     */
+    public int index(T element) {
+        int i = find(element);
+        return i == 0 ? 0 : cumulative[i - 1];
+    }
+
+    private int find(T element) {
+        int i = element == null ? -1 : Arrays.binarySearch(keys, element);
+        if (i < 0) {
+            throw new IllegalArgumentException("element " + element + " not in the distribution");
+        }
+        return i;
+    }
+
+    /**
+     * @return the elements of the distribution, in sorted order
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> keys() {
+        return (List<T>) (List<?>) Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    /**
+     * Print the distribution in the same format as
+     * {@link ProbabilityDistribution#toString()}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder();
+        res.append("{");
+        for (int i = 0; i < keys.length; i++) {
+            res.append(" \"");
+            res.append(keys[i]);
+            res.append("\":");
+            res.append(i == 0 ? cumulative[0] : cumulative[i] - cumulative[i - 1]);
+            res.append(" ");
+        }
+        res.append("}");
+        return res.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A walk through a {@link ConcurrentMarkovChain}, which may be trained by
+ * other threads while the walk is in progress. Each step picks from a recent
+ * snapshot of the current token's distribution; otherwise this behaves like
+ * {@link MarkovChainIterator}.
+ */
+class ConcurrentChainIterator implements Iterator<String> {
+
+    private final ConcurrentMarkovChain chain;
+
+    // stores the source of numbers that determine the path of ths walk
+    private final NumberGenerator ng;
+
+    private String currToken;
+    private boolean hasNext = true;
+
+    /**
+     * Constructs an iterator that follows the path specified by the given
+     * {@code NumberGenerator}. If the number generator can not provide a valid
+     * start index, or if there are no start tokens yet, the iterator is empty.
+     *
+     * @param chain the chain to walk (assumed not null)
+     * @param ng    the number generator to use for this walk (assumed not null)
+     */
+    ConcurrentChainIterator(ConcurrentMarkovChain chain, NumberGenerator ng) {
+        this.chain = chain;
+        this.ng = ng;
+        try {
+            currToken = chain.startTokens.pick(ng);
+        } catch (RuntimeException e) {
+            hasNext = false;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext && !currToken.equals(MarkovChain.END_TOKEN);
+    }
+
+    /**
+     * @return the next token in the walk
+     * @throws NoSuchElementException if the walk has reached
+     *                                {@code END_TOKEN} or the number generator
+     *                                provides an invalid choice
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String nextToken;
+        try {
+            nextToken = chain.bigramFrequencies.get(currToken).pick(ng);
+        } catch (RuntimeException e) {
+            hasNext = false;
+            throw new NoSuchElementException();
+        }
+        String temp = currToken;
+        currToken = nextToken;
+        return temp;
+    }
+}
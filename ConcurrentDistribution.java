@@ -0,0 +1,115 @@
+package org.cis1200;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe variant of {@link ProbabilityDistribution} for
+ * {@link ConcurrentMarkovChain}. Any number of threads may call
+ * {@link #record} and {@code pick} at the same time without locking.
+ * <p>
+ * Every element has its own {@link LongAdder}, so writers recording different
+ * elements never contend, and writers recording the same element are spread
+ * over the adder's cells.
+ * <p>
+ * Readers pick from an immutable {@link CompiledDistribution} snapshot of the
+ * counts. The snapshot is rebuilt by whichever reader notices that the total
+ * has grown by more than {@code 1 / STALENESS} since it was taken, so picks
+ * stay binary searches and the rebuild costs amortize to a constant per
+ * record. In between rebuilds, picks follow the counts of the snapshot: this
+ * is "consistent enough" for sampling, but means recent records may not be
+ * visible to readers yet.
+ */
+class ConcurrentDistribution {
+
+    /** snapshots are rebuilt once the total grows by more than 1/STALENESS */
+    static final int STALENESS = 8;
+
+    // INVARIANT: every adder has a sum > 0 once it is visible in the map
+    private final ConcurrentSkipListMap<String, LongAdder> counts =
+            new ConcurrentSkipListMap<>();
+    private final LongAdder total = new LongAdder();
+    private volatile CompiledDistribution<String> snapshot;
+
+    /**
+     * Add an instance to the distribution.
+     *
+     * @param t - an element to add to the distribution
+     * @throws IllegalArgumentException when t is null
+     */
+    public void record(String t) {
+        if (t == null) {
+            throw new IllegalArgumentException("Cannot record null");
+        }
+        LongAdder count = counts.get(t);
+        if (count == null) {
+            // increment before publishing, so no reader sees a zero count
+            LongAdder fresh = new LongAdder();
+            fresh.increment();
+            count = counts.putIfAbsent(t, fresh);
+            if (count == null) {
+                total.increment();
+                return;
+            }
+        }
+        count.increment();
+        total.increment();
+    }
+
+    /**
+     * @return the number of instances that have been added via record(),
+     *         including ones that are still in flight on other threads
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns a snapshot of the counts that is at most {@code 1 / STALENESS}
+     * behind the total at the time of the call, rebuilding it if needed.
+     *
+     * @return a compiled snapshot of this distribution
+     */
+    public CompiledDistribution<String> snapshot() {
+        CompiledDistribution<String> snap = snapshot;
+        long now = total.sum();
+        if (snap == null || now - snap.getTotal() > snap.getTotal() / STALENESS) {
+            snap = new CompiledDistribution<>(counts());
+            snapshot = snap;
+        }
+        return snap;
+    }
+
+    /**
+     * @return a sorted copy of the current counts
+     */
+    SortedMap<String, Integer> counts() {
+        SortedMap<String, Integer> copy = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : counts.entrySet()) {
+            copy.put(entry.getKey(), Math.toIntExact(entry.getValue().sum()));
+        }
+        return copy;
+    }
+
+    /**
+     * Picks an element from a recent snapshot of the distribution.
+     *
+     * @param generator - uses the generator to pick a particular element
+     * @return the chosen element
+     * @throws IllegalArgumentException if a number received from the generator
+     *                                  is out of range
+     */
+    public String pick(NumberGenerator generator) {
+        return snapshot().pick(generator);
+    }
+
+    /**
+     * Print the current counts in the same format as
+     * {@link ProbabilityDistribution#toString()}.
+     */
+    @Override
+    public String toString() {
+        return new CompiledDistribution<>(counts()).toString();
+    }
+}
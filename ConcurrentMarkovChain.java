@@ -0,0 +1,140 @@
+package org.cis1200;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe {@link MarkovModel} that can be trained by any number of
+ * threads while other threads are walking it, without any global lock.
+ * <p>
+ * Training works as in {@link MarkovChain#addSequence}, but bigram
+ * distributions live in a {@link ConcurrentHashMap} and are
+ * {@link ConcurrentDistribution}s, which count with per-element
+ * {@code LongAdder}s. Walks sample from recent snapshots of each distribution,
+ * so a walk sees the chain as it was up to a bounded amount of recent training
+ * (see {@link ConcurrentDistribution}).
+ * <p>
+ * To make sure that a walk never reaches a token that has no bigram
+ * distribution yet, {@link #addSequence} records the bigrams of a tweet from
+ * the last one to the first, and the start token after all of them. By the
+ * time any token is visible as a start token or as the successor of another
+ * token, its own bigrams have already been recorded.
+ */
+public class ConcurrentMarkovChain implements MarkovModel {
+
+    /** probability distribution of initial tokens in a sentence */
+    final ConcurrentDistribution startTokens;
+
+    /** for each token, probability distribution of next token in a sentence */
+    final ConcurrentHashMap<String, ConcurrentDistribution> bigramFrequencies;
+
+    /**
+     * Construct an empty {@code ConcurrentMarkovChain} that can later be
+     * trained.
+     */
+    public ConcurrentMarkovChain() {
+        this.startTokens = new ConcurrentDistribution();
+        this.bigramFrequencies = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a bigram to the chain. Safe to call from any thread.
+     *
+     * @param first  The first token of the Bigram (should not be null)
+     * @param second The second token of the Bigram (should not be null)
+     * @throws IllegalArgumentException - when either parameter is null
+     */
+    void addBigram(String first, String second) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("One of the params is null");
+        }
+        bigramFrequencies.computeIfAbsent(first, k -> new ConcurrentDistribution())
+                .record(second);
+    }
+
+    /**
+     * Adds a single tweet's training data to the chain, like
+     * {@link MarkovChain#addSequence}. Safe to call from any thread, including
+     * while other threads are walking the chain. Does nothing if the tweet is
+     * empty.
+     *
+     * @param tweet an iterator representing one tweet of training data
+     * @throws IllegalArgumentException when the tweet Iterator is null
+     */
+    public void addSequence(Iterator<String> tweet) {
+        if (tweet == null) {
+            throw new IllegalArgumentException("Param is null");
+        }
+        List<String> tokens = new ArrayList<>();
+        while (tweet.hasNext()) {
+            tokens.add(tweet.next());
+        }
+        if (tokens.isEmpty()) {
+            return;
+        }
+        // record back to front, so every token has bigrams before it can be
+        // reached by a walk
+        String next = MarkovChain.END_TOKEN;
+        for (int i = tokens.size() - 1; i >= 0; i--) {
+            addBigram(tokens.get(i), next);
+            next = tokens.get(i);
+        }
+        startTokens.record(next);
+    }
+
+    @Override
+    public Iterator<String> getWalk(NumberGenerator ng) {
+        return new ConcurrentChainIterator(this, ng);
+    }
+
+    /**
+     * Generates the choices for a walk of the given tokens, using the same
+     * snapshots as {@link #getWalk}. If training continues, the snapshots may
+     * be refreshed and the choices may no longer produce the same walk. The
+     * given list is not modified.
+     *
+     * @param tokens an ordered list of tokens that the chain should generate
+     * @return a list of integers representing a walk through the chain
+     * @throws IllegalArgumentException if the tokens are not a walk of the
+     *                                  chain
+     */
+    @Override
+    public List<Integer> findWalkChoices(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty or null tokens");
+        }
+        List<Integer> choices = new ArrayList<>(tokens.size() + 1);
+        ConcurrentDistribution curDist = startTokens;
+        for (String token : tokens) {
+            if (curDist == null) {
+                throw new IllegalArgumentException("token " + token + " is not in the chain");
+            }
+            choices.add(curDist.snapshot().index(token));
+            curDist = bigramFrequencies.get(token);
+        }
+        if (curDist == null) {
+            throw new IllegalArgumentException("last token is not in the chain");
+        }
+        choices.add(curDist.snapshot().index(MarkovChain.END_TOKEN));
+        return choices;
+    }
+
+    /**
+     * Prints the current counts in exactly the same format as
+     * {@link MarkovChain#toString()}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder();
+        res.append("startTokens: ").append(startTokens.toString());
+        res.append("\nbigramFrequencies:\n");
+        for (String token : new TreeSet<>(bigramFrequencies.keySet())) {
+            res.append("\"");
+            res.append(token);
+            res.append("\":\t");
+            res.append(bigramFrequencies.get(token).toString());
+            res.append("\n");
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,120 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Tests for ConcurrentMarkovChain */
+public class ConcurrentMarkovChainTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int TWEETS_PER_WRITER = 5000;
+
+    // tweets are runs of consecutive words, so "w3" is only ever followed by
+    // "w4" or END_TOKEN
+    private static List<String> tweet(Random r) {
+        int first = r.nextInt(50);
+        int length = 1 + r.nextInt(8);
+        List<String> tweet = new ArrayList<>();
+        for (int i = first; i < first + length; i++) {
+            tweet.add("w" + i);
+        }
+        return tweet;
+    }
+
+    @Test
+    public void testMatchesMarkovChain() {
+        ConcurrentMarkovChain cmc = new ConcurrentMarkovChain();
+        MarkovChain mc = new MarkovChain();
+        String[] tweet1 = { "a", "table", "and", "a", "chair" };
+        String[] tweet2 = { "a", "banana", "!", "and", "a", "banana", "?" };
+        for (String[] tweet : Arrays.asList(tweet1, tweet2)) {
+            cmc.addSequence(Arrays.stream(tweet).iterator());
+            mc.addSequence(Arrays.stream(tweet).iterator());
+        }
+        assertEquals(mc.toString(), cmc.toString());
+
+        List<String> tokens = Arrays.asList("a", "banana", "!", "and", "a", "chair");
+        List<Integer> choices = cmc.findWalkChoices(tokens);
+        assertEquals(mc.findWalkChoices(new ArrayList<>(tokens)), choices);
+        Iterator<String> walk = cmc.getWalk(new ListNumberGenerator(choices));
+        for (String token : tokens) {
+            assertTrue(walk.hasNext());
+            assertEquals(token, walk.next());
+        }
+        assertFalse(walk.hasNext());
+        assertThrows(NoSuchElementException.class, walk::next);
+    }
+
+    @Test
+    public void testEmptyChain() {
+        Iterator<String> walk = new ConcurrentMarkovChain().getWalk(new RandomNumberGenerator());
+        assertFalse(walk.hasNext());
+    }
+
+    @Test
+    public void testConcurrentWritersAndReaders() throws Exception {
+        ConcurrentMarkovChain cmc = new ConcurrentMarkovChain();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch writersDone = new CountDownLatch(WRITERS);
+        AtomicInteger walks = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            long seed = w;
+            futures.add(pool.submit(() -> {
+                Random r = new Random(seed);
+                for (int i = 0; i < TWEETS_PER_WRITER; i++) {
+                    cmc.addSequence(tweet(r).iterator());
+                }
+                writersDone.countDown();
+            }));
+        }
+        for (int reader = 0; reader < READERS; reader++) {
+            long seed = 100 + reader;
+            futures.add(pool.submit(() -> {
+                NumberGenerator ng = new RandomNumberGenerator(seed);
+                do {
+                    Iterator<String> walk = cmc.getWalk(ng);
+                    String prev = null;
+                    while (walk.hasNext()) {
+                        String token = walk.next();
+                        if (prev != null) {
+                            int expected = Integer.parseInt(prev.substring(1)) + 1;
+                            assertEquals("w" + expected, token);
+                        }
+                        prev = token;
+                    }
+                    walks.incrementAndGet();
+                } while (writersDone.getCount() > 0);
+                return null;
+            }));
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        });
+        pool.shutdown();
+        assertTrue(walks.get() > 0);
+
+        // once everything is done, the counts are exactly the sequential ones
+        MarkovChain mc = new MarkovChain();
+        for (int w = 0; w < WRITERS; w++) {
+            Random r = new Random(w);
+            for (int i = 0; i < TWEETS_PER_WRITER; i++) {
+                mc.addSequence(tweet(r).iterator());
+            }
+        }
+        assertEquals(WRITERS * TWEETS_PER_WRITER, cmc.startTokens.getTotal());
+        assertEquals(mc.toString(), cmc.toString());
+    }
+
+}
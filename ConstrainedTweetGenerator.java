@@ -0,0 +1,137 @@
+package org.cis1200;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates tweets from a {@link TwitterBot} that fit a character limit, such
+ * as the 280 characters of a real tweet.
+ * <p>
+ * Walks that turn out too long, or that copy a training tweet (see
+ * {@link TwitterBot#isTrainingTweet}), are rejected, and another walk is
+ * tried, up to a fixed number of attempts. The length of each tweet is
+ * tracked while it is generated (see {@link TwitterBot#generateTweetWithin}),
+ * so a walk that is too long is abandoned as soon as it goes over the limit
+ * instead of being finished and thrown away.
+ * <p>
+ * The generator counts its attempts, acceptances, rejections, copies and
+ * failures, so the acceptance rate can be monitored and the limits tuned. It
+ * is safe to use from multiple threads.
+ */
+public class ConstrainedTweetGenerator {
+
+    /** the length limit of a real tweet */
+    public static final int TWEET_LENGTH = 280;
+
+    private final TwitterBot bot;
+    private final int maxChars;
+    private final int maxAttempts;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder copies = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param bot         - the bot to generate tweets with (assumed not null)
+     * @param maxChars    - the most characters a tweet may have
+     * @param maxAttempts - the most walks to try for each tweet
+     * @throws IllegalArgumentException if maxChars is negative or maxAttempts
+     *                                  is not positive
+     */
+    public ConstrainedTweetGenerator(TwitterBot bot, int maxChars, int maxAttempts) {
+        if (maxChars < 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("invalid limits");
+        }
+        this.bot = bot;
+        this.maxChars = maxChars;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Generates a tweet of at most {@code maxChars} characters that does not
+     * copy a training tweet, by following walks given by {@code ng} until one
+     * is short enough and original.
+     *
+     * @param ng a source of numbers for the walks (assumed not null)
+     * @return the first tweet that fits and is original, or nothing if none
+     *         of the attempts was
+     */
+    public Optional<String> generate(NumberGenerator ng) {
+        requests.increment();
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            attempts.increment();
+            String tweet = bot.generateTweetWithin(ng, maxChars);
+            if (tweet != null && bot.isTrainingTweet(tweet)) {
+                copies.increment();
+            } else if (tweet != null) {
+                accepted.increment();
+                return Optional.of(tweet);
+            }
+        }
+        failures.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Generates a random tweet of at most {@code maxChars} characters, as
+     * above, with the random generator of the current thread.
+     *
+     * @return a random tweet that fits and is original, or nothing if none of
+     *         the attempts was
+     */
+    public Optional<String> generate() {
+        return generate(StreamNumberGenerator.threadLocal());
+    }
+
+    /** @return the number of calls to {@code generate} */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /** @return the number of walks tried */
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    /** @return the number of walks that fit and were returned */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return the number of walks rejected, for being too long or for copying
+     *         a training tweet
+     */
+    public long getRejectedCount() {
+        return attempts.sum() - accepted.sum();
+    }
+
+    /** @return the number of walks rejected for copying a training tweet */
+    public long getCopyCount() {
+        return copies.sum();
+    }
+
+    /** @return the number of calls that returned nothing */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the fraction of walks that fit, or 0 if none have been tried
+     */
+    public double getAcceptanceRate() {
+        long tried = attempts.sum();
+        return tried == 0 ? 0 : (double) accepted.sum() / tried;
+    }
+
+    @Override
+    public String toString() {
+        return "requests=" + getRequestCount() + " attempts=" + getAttemptCount()
+                + " accepted=" + getAcceptedCount() + " rejected=" + getRejectedCount()
+                + " copies=" + getCopyCount()
+                + " failures=" + getFailureCount()
+                + String.format(" acceptanceRate=%.3f", getAcceptanceRate());
+    }
+}
@@ -0,0 +1,105 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for ConstrainedTweetGenerator */
+public class ConstrainedTweetGeneratorTest {
+
+    private static MarkovChain illustrativeExample() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        mc.addSequence(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?").iterator());
+        return mc;
+    }
+
+    @Test
+    public void testRejectsLongTweets() {
+        // "a banana!" is too long; then "a chair" fits. The compact bot stops
+        // before drawing the successor of "!", while the walk of a
+        // MarkovChain has already drawn it
+        Map<TwitterBot, int[]> walks = new LinkedHashMap<>();
+        walks.put(new TwitterBot(illustrativeExample().compact()), new int[] { 0, 0, 0, 0, 2, 0 });
+        walks.put(new TwitterBot(illustrativeExample()), new int[] { 0, 0, 0, 0, 0, 2, 0 });
+        for (Map.Entry<TwitterBot, int[]> entry : walks.entrySet()) {
+            ConstrainedTweetGenerator generator = new ConstrainedTweetGenerator(
+                    entry.getKey(), 8, 3
+            );
+            NumberGenerator ng = new ListNumberGenerator(entry.getValue());
+            assertEquals(Optional.of("a chair"), generator.generate(ng));
+            assertEquals(1, generator.getRequestCount());
+            assertEquals(2, generator.getAttemptCount());
+            assertEquals(1, generator.getRejectedCount());
+            assertEquals(0.5, generator.getAcceptanceRate());
+        }
+    }
+
+    @Test
+    public void testRejectsCopies() {
+        List<List<String>> trainingData = TweetParser.rawTweetsToTrainingData(
+                Arrays.asList("a table and a chair", "a banana! and a banana?")
+        );
+        ConstrainedTweetGenerator generator = new ConstrainedTweetGenerator(
+                TwitterBot.rejectingCopies(trainingData), 280, 3
+        );
+        // "a table and a chair" fits but copies a training tweet; then
+        // "a chair" is original
+        NumberGenerator ng = new ListNumberGenerator(new int[] { 0, 3, 0, 0, 2, 0, 0, 2, 0 });
+        assertEquals(Optional.of("a chair"), generator.generate(ng));
+        assertEquals(2, generator.getAttemptCount());
+        assertEquals(1, generator.getRejectedCount());
+        assertEquals(1, generator.getCopyCount());
+        // every walk copies
+        NumberGenerator copy = new ListNumberGenerator(new int[] { 0, 3, 0, 0, 2, 0 });
+        assertEquals(Optional.empty(), generator.generate(copy));
+        assertEquals(1, generator.getFailureCount());
+        assertEquals(4, generator.getCopyCount());
+    }
+
+    @Test
+    public void testRejectedWalksStopEarly() {
+        ConstrainedTweetGenerator generator = new ConstrainedTweetGenerator(
+                new TwitterBot(illustrativeExample().compact()), 4, 1
+        );
+        // this walk loops forever, but is abandoned at "a banana", before the
+        // successor of "banana" is drawn
+        int[] drawn = { 0 };
+        NumberGenerator loop = bound -> {
+            drawn[0]++;
+            return 0;
+        };
+        assertEquals(Optional.empty(), generator.generate(loop));
+        assertEquals(2, drawn[0]);
+        assertEquals(1, generator.getFailureCount());
+        assertEquals(0.0, generator.getAcceptanceRate());
+    }
+
+    @Test
+    public void testTweetsFitAndMatchUnconstrained() {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(2200, 300, 40);
+        TwitterBot bot = new TwitterBot(mc.compact());
+        ConstrainedTweetGenerator generator = new ConstrainedTweetGenerator(bot, 20, 50);
+        for (long seed = 0; seed < 200; seed++) {
+            String expected = bot.generateTweet(new RandomNumberGenerator(seed));
+            Optional<String> tweet = generator.generate(new RandomNumberGenerator(seed));
+            assertTrue(tweet.isPresent());
+            assertTrue(tweet.get().length() <= 20);
+            // a first walk that fits is returned unchanged
+            if (expected.length() <= 20) {
+                assertEquals(expected, tweet.get());
+            }
+        }
+        assertTrue(generator.getAcceptanceRate() > 0 && generator.getAcceptanceRate() < 1);
+        assertEquals(200, generator.getAcceptedCount());
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        TwitterBot bot = new TwitterBot(illustrativeExample());
+        assertThrows(IllegalArgumentException.class, () -> new ConstrainedTweetGenerator(bot, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ConstrainedTweetGenerator(bot, 280, 0));
+    }
+}
@@ -0,0 +1,464 @@
+package org.cis1200;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A read-only chain that keeps its bigram distributions on disk and loads
+ * them on demand, for chains too large to hold in memory even when compacted.
+ * <p>
+ * {@link #save} writes a trained {@link MarkovChain} to a directory of
+ * <i>segment</i> files, each holding the distributions of a run of source
+ * tokens, and an {@code index} file that holds the start tokens and, for
+ * each source token, the segment, offset and length of its distribution:
+ *
+ * <pre>
+ *  index:          MAGIC, VERSION, generation, segment count, start
+ *                  tokens (as a row), row count, then for each row: token
+ *                  (UTF), segment, offset, length
+ *  segment-G-N.bin: rows, each an entry count followed by that many
+ *                  (token (UTF), count) pairs in token order, where G is the
+ *                  generation of the save that wrote them
+ * </pre>
+ *
+ * {@link #open} reads only the index. The walks of the chain, made by a
+ * {@link MarkovChainIterator} exactly as for a {@code MarkovChain}, look up
+ * each distribution through a bounded {@link DistributionCache}, which reads
+ * it from its segment on a miss. Since the tokens of real text follow a
+ * Zipfian distribution, most steps of most walks hit the cache. The hit
+ * rate, evictions and load latency of the cache are exposed for monitoring.
+ * <p>
+ * If a distribution cannot be read during a walk, the walk ends as if the
+ * {@code NumberGenerator} had made an invalid choice. The chain holds the
+ * segment files open until it is closed.
+ */
+public class DiskMarkovChain implements MarkovModel, Closeable {
+
+    /** "MKDS" */
+    static final int MAGIC = 0x4D4B4453;
+    /** incremented whenever the layout changes */
+    static final int VERSION = 2;
+    /** segments are started once they reach this many bytes */
+    static final int DEFAULT_SEGMENT_BYTES = 1 << 20;
+
+    static final String INDEX_FILE = "index";
+
+    private final ProbabilityDistribution<String> startTokens;
+    // where each row is stored
+    private final Map<String, RowLocation> index;
+    private final FileChannel[] segments;
+    private final DistributionCache cache;
+    private final Map<String, ProbabilityDistribution<String>> bigramFrequencies;
+
+    private static final class RowLocation {
+        final int segment;
+        final long offset;
+        final int length;
+
+        RowLocation(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private DiskMarkovChain(
+            ProbabilityDistribution<String> startTokens, Map<String, RowLocation> index,
+            FileChannel[] segments, long cacheCapacity
+    ) {
+        this.startTokens = startTokens;
+        this.index = index;
+        this.segments = segments;
+        this.cache = new DistributionCache(cacheCapacity, this::load);
+        this.bigramFrequencies = new LazyDistributions();
+    }
+
+    static Path segmentFile(Path dir, long generation, int segment) {
+        return dir.resolve(String.format("segment-%d-%03d.bin", generation, segment));
+    }
+
+    // the generation of a segment file, or -1 if it is not one of the
+    // segment files of the current layout
+    private static long generationOf(Path file) {
+        String[] parts = file.getFileName().toString().split("-");
+        if (parts.length != 3) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Writes the chain to the given directory with the default segment size,
+     * replacing any chain that was saved there before.
+     *
+     * @param mc  - the chain to save (assumed not null)
+     * @param dir - the directory, which is created if needed
+     * @throws IOException if the files cannot be written
+     */
+    public static void save(MarkovChain mc, Path dir) throws IOException {
+        save(mc, dir, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Writes the chain to the given directory, starting a new segment file
+     * whenever the current one reaches {@code segmentBytes}.
+     * <p>
+     * Each save writes a new <i>generation</i> of segment files next to the
+     * old ones, then moves a new index over the old one atomically, and only
+     * then deletes the old segments. The directory therefore always holds a
+     * complete chain, the old one or the new one, even if the save is
+     * interrupted, and chains that are already open keep reading the old
+     * segments.
+     *
+     * @throws IllegalArgumentException if segmentBytes is not positive
+     */
+    static void save(MarkovChain mc, Path dir, int segmentBytes) throws IOException {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("segment size must be positive");
+        }
+        Files.createDirectories(dir);
+        long generation = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.bin")) {
+            for (Path file : files) {
+                generation = Math.max(generation, generationOf(file) + 1);
+            }
+        }
+
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream idx = new DataOutputStream(indexBytes);
+        idx.writeInt(mc.bigramFrequencies.size());
+
+        int segment = 0;
+        SegmentWriter out = new SegmentWriter(segmentFile(dir, generation, segment));
+        try {
+            for (Map.Entry<String, ProbabilityDistribution<String>> entry
+                    : new TreeMap<>(mc.bigramFrequencies).entrySet()) {
+                if (out.data.size() >= segmentBytes) {
+                    out.commit();
+                    segment++;
+                    out = new SegmentWriter(segmentFile(dir, generation, segment));
+                }
+                int offset = out.data.size();
+                writeRow(out.data, entry.getValue());
+                idx.writeUTF(entry.getKey());
+                idx.writeInt(segment);
+                idx.writeLong(offset);
+                idx.writeInt(out.data.size() - offset);
+            }
+            out.commit();
+        } finally {
+            out.data.close();
+        }
+
+        Path temp = Files.createTempFile(dir, INDEX_FILE, ".tmp");
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                    DataOutputStream header = new DataOutputStream(
+                            new BufferedOutputStream(file))) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeLong(generation);
+                header.writeInt(segment + 1);
+                writeRow(header, mc.startTokens);
+                indexBytes.writeTo(header);
+                header.flush();
+                file.getChannel().force(true);
+            }
+            ChainSnapshot.replace(temp, dir.resolve(INDEX_FILE));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // the new index is in place, so segments of earlier saves are unused
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.bin")) {
+            for (Path file : files) {
+                if (generationOf(file) != generation) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        // still open elsewhere; the next save retries
+                    }
+                }
+            }
+        }
+    }
+
+    /** a segment file being written, which is synced to disk on commit */
+    private static final class SegmentWriter {
+        final FileOutputStream file;
+        final DataOutputStream data;
+
+        SegmentWriter(Path path) throws IOException {
+            this.file = new FileOutputStream(path.toFile());
+            this.data = new DataOutputStream(new BufferedOutputStream(file));
+        }
+
+        void commit() throws IOException {
+            data.flush();
+            file.getChannel().force(true);
+            data.close();
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, ProbabilityDistribution<String> pd)
+            throws IOException {
+        out.writeInt(pd.getRecords().size());
+        for (Map.Entry<String, Integer> entry : pd.getRecords().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static ProbabilityDistribution<String> readRow(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("corrupt row");
+        }
+        ProbabilityDistribution<String> pd = new ProbabilityDistribution<>();
+        for (int i = 0; i < size; i++) {
+            String token = in.readUTF();
+            int count = in.readInt();
+            if (count <= 0) {
+                throw new IOException("corrupt row");
+            }
+            pd.record(token, count);
+        }
+        return pd;
+    }
+
+    /**
+     * Opens a chain saved by {@link #save}, reading only its index.
+     *
+     * @param dir           - the directory the chain was saved to
+     * @param cacheCapacity - the maximum number of bigrams, summed over all
+     *                      cached distributions, to hold in memory
+     * @return the chain, which must be closed when no longer needed
+     * @throws IOException              if the files cannot be read or are not a
+     *                                  saved chain
+     * @throws IllegalArgumentException if cacheCapacity is not positive
+     */
+    public static DiskMarkovChain open(Path dir, long cacheCapacity) throws IOException {
+        if (cacheCapacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        ProbabilityDistribution<String> startTokens;
+        Map<String, RowLocation> index = new HashMap<>();
+        long generation;
+        int segmentCount;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(dir.resolve(INDEX_FILE))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a saved chain");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported chain version " + version);
+            }
+            generation = in.readLong();
+            segmentCount = in.readInt();
+            startTokens = readRow(in);
+            int rows = in.readInt();
+            for (int i = 0; i < rows; i++) {
+                String token = in.readUTF();
+                RowLocation row = new RowLocation(in.readInt(), in.readLong(), in.readInt());
+                if (row.segment < 0 || row.segment >= segmentCount || row.length < 0) {
+                    throw new IOException("corrupt index");
+                }
+                index.put(token, row);
+            }
+        } catch (EOFException e) {
+            throw new IOException("truncated index", e);
+        }
+
+        FileChannel[] segments = new FileChannel[segmentCount];
+        try {
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = FileChannel.open(
+                        segmentFile(dir, generation, i), StandardOpenOption.READ
+                );
+            }
+        } catch (IOException e) {
+            closeAll(segments);
+            throw e;
+        }
+        return new DiskMarkovChain(startTokens, index, segments, cacheCapacity);
+    }
+
+    // reads the distribution of token from its segment; called on cache misses
+    private ProbabilityDistribution<String> load(String token) {
+        RowLocation row = index.get(token);
+        if (row == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(row.length);
+            // positional reads do not move the channel, so threads can share it
+            while (buffer.hasRemaining()) {
+                int read = segments[row.segment].read(buffer, row.offset + buffer.position());
+                if (read < 0) {
+                    throw new EOFException("segment " + row.segment + " is truncated");
+                }
+            }
+            return readRow(new DataInputStream(new ByteArrayInputStream(buffer.array())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The bigram frequencies as seen by a walk: lookups go through the cache.
+     * Iterating reads every distribution straight from disk instead, so that
+     * a full scan neither flushes the cache nor skews its statistics.
+     */
+    private final class LazyDistributions
+            extends AbstractMap<String, ProbabilityDistribution<String>> {
+
+        @Override
+        public ProbabilityDistribution<String> get(Object token) {
+            return token instanceof String ? cache.get((String) token) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object token) {
+            return index.containsKey(token);
+        }
+
+        @Override
+        public Set<Entry<String, ProbabilityDistribution<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, ProbabilityDistribution<String>>> iterator() {
+                    Iterator<String> tokens = new TreeSet<>(index.keySet()).iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return tokens.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, ProbabilityDistribution<String>> next() {
+                            String token = tokens.next();
+                            return new SimpleImmutableEntry<>(token, load(token));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return index.size();
+                }
+            };
+        }
+    }
+
+    @Override
+    public Iterator<String> getWalk(NumberGenerator ng) {
+        return new MarkovChainIterator(startTokens, bigramFrequencies, ng);
+    }
+
+    /**
+     * Generate a list of numbers such that if it is installed as the number
+     * generator for {@link #getWalk}, the tokens returned in sequence will be
+     * the list of provided tokens. The given list is not modified.
+     *
+     * @param tokens an ordered list of tokens that the chain should generate
+     * @return a list of integers representing the walk
+     * @throws IllegalArgumentException if the tokens are null, empty or not a
+     *                                  complete walk of the chain
+     */
+    @Override
+    public List<Integer> findWalkChoices(List<String> tokens) {
+        MarkovChain view = new MarkovChain();
+        view.startTokens.merge(startTokens);
+        for (String token : new HashSet<>(tokens == null ? List.of() : tokens)) {
+            // read around the cache, whose statistics only count walks
+            ProbabilityDistribution<String> pd = load(token);
+            if (pd != null) {
+                view.bigramFrequencies.put(token, pd);
+            }
+        }
+        return view.findWalkChoices(tokens);
+    }
+
+    /** @return the number of lookups that found their distribution cached */
+    public long hitCount() {
+        return cache.hitCount();
+    }
+
+    /** @return the number of lookups that had to read from disk */
+    public long missCount() {
+        return cache.missCount();
+    }
+
+    /** @return the number of distributions evicted from the cache */
+    public long evictionCount() {
+        return cache.evictionCount();
+    }
+
+    /** @return the fraction of lookups that hit the cache, or 0 if none */
+    public double hitRate() {
+        long hits = cache.hitCount();
+        long lookups = hits + cache.missCount();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /** @return the mean time in nanoseconds to load a distribution on a miss */
+    public double averageLoadNanos() {
+        long misses = cache.missCount();
+        return misses == 0 ? 0 : (double) cache.totalLoadNanos() / misses;
+    }
+
+    /** @return the number of distributions currently cached */
+    int cachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * Prints the chain in exactly the same format as
+     * {@link MarkovChain#toString()}. This reads every distribution from
+     * disk, bypassing the cache.
+     */
+    @Override
+    public String toString() {
+        MarkovChain copy = new MarkovChain();
+        copy.startTokens.merge(startTokens);
+        copy.bigramFrequencies.putAll(bigramFrequencies);
+        return copy.toString();
+    }
+
+    /**
+     * Closes the segment files. Walks that are still in progress end at the
+     * next distribution that is not cached.
+     */
+    @Override
+    public void close() throws IOException {
+        closeAll(segments);
+    }
+
+    private static void closeAll(FileChannel[] channels) throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : channels) {
+            if (channel == null) {
+                continue;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
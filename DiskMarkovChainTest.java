@@ -0,0 +1,147 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/** Tests for DiskMarkovChain and DistributionCache */
+public class DiskMarkovChainTest {
+
+    private static List<String> walk(Iterator<String> it) {
+        List<String> tokens = new ArrayList<>();
+        while (it.hasNext()) {
+            tokens.add(it.next());
+        }
+        return tokens;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testDiskChainMatchesMarkovChain() throws IOException {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(1400, 300, 40);
+        Path dir = Files.createTempDirectory("chain");
+        try {
+            // small segments, so that the rows are spread over several files
+            DiskMarkovChain.save(mc, dir, 256);
+            assertTrue(Files.exists(DiskMarkovChain.segmentFile(dir, 0, 2)));
+            try (DiskMarkovChain disk = DiskMarkovChain.open(dir, 20)) {
+                for (long seed = 0; seed < 200; seed++) {
+                    assertEquals(
+                            walk(mc.getWalk(new RandomNumberGenerator(seed))),
+                            walk(disk.getWalk(new RandomNumberGenerator(seed)))
+                    );
+                }
+                assertEquals(mc.toString(), disk.toString());
+                List<String> tokens = walk(mc.getWalk(new RandomNumberGenerator(7)));
+                assertEquals(mc.findWalkChoices(tokens), disk.findWalkChoices(tokens));
+                assertThrows(
+                        IllegalArgumentException.class,
+                        () -> disk.findWalkChoices(Arrays.asList("lamp"))
+                );
+                assertTrue(disk.evictionCount() > 0);
+                assertTrue(disk.averageLoadNanos() > 0);
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    public void testCacheHitsAndEvictions() throws IOException {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        Path dir = Files.createTempDirectory("chain");
+        try {
+            DiskMarkovChain.save(mc, dir);
+            // room for "a" (weight 2) and one more row
+            try (DiskMarkovChain disk = DiskMarkovChain.open(dir, 3)) {
+                Iterator<String> it = disk.getWalk(new ListNumberGenerator(new int[] { 0, 0 }));
+                assertEquals("a", it.next());
+                assertEquals("chair", it.next());
+                assertFalse(it.hasNext());
+                assertEquals(0, disk.hitCount());
+                assertEquals(2, disk.missCount());
+                assertEquals(0, disk.evictionCount());
+
+                it = disk.getWalk(new ListNumberGenerator(new int[] { 0, 1, 0, 0, 0 }));
+                assertEquals(Arrays.asList("a", "table", "and", "a", "chair"), walk(it));
+                // only the first step hits; loading "table", "and", "a" and
+                // "chair" each evict the least recently used row
+                assertEquals(1, disk.hitCount());
+                assertEquals(6, disk.missCount());
+                assertEquals(4, disk.evictionCount());
+                assertEquals(2, disk.cachedCount());
+                assertEquals(1.0 / 7, disk.hitRate());
+
+                // neither reads through the cache
+                disk.toString();
+                disk.findWalkChoices(Arrays.asList("a", "table", "and", "a", "chair"));
+                assertEquals(1, disk.hitCount());
+                assertEquals(6, disk.missCount());
+                assertEquals(4, disk.evictionCount());
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    public void testSaveReplacesEarlierChain() throws IOException {
+        MarkovChain big = CompactMarkovChainTest.randomChain(1500, 300, 40);
+        MarkovChain small = new MarkovChain();
+        small.addSequence(Arrays.asList("a", "chair").iterator());
+        Path dir = Files.createTempDirectory("chain");
+        try {
+            DiskMarkovChain.save(big, dir, 256);
+            DiskMarkovChain.save(small, dir, 256);
+            // the new chain is written beside the old one, which is then
+            // deleted
+            assertTrue(Files.exists(DiskMarkovChain.segmentFile(dir, 1, 0)));
+            assertFalse(Files.exists(DiskMarkovChain.segmentFile(dir, 0, 0)));
+            try (DiskMarkovChain disk = DiskMarkovChain.open(dir, 20)) {
+                assertEquals(small.toString(), disk.toString());
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                int count = 0;
+                for (Path file : files) {
+                    count++;
+                }
+                // the index and one segment
+                assertEquals(2, count);
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    public void testEmptyAndInvalid() throws IOException {
+        Path dir = Files.createTempDirectory("chain");
+        try {
+            DiskMarkovChain.save(new MarkovChain(), dir);
+            try (DiskMarkovChain disk = DiskMarkovChain.open(dir, 10)) {
+                assertFalse(disk.getWalk(new RandomNumberGenerator(1)).hasNext());
+                assertEquals(new MarkovChain().toString(), disk.toString());
+            }
+            assertThrows(IllegalArgumentException.class, () -> DiskMarkovChain.open(dir, 0));
+            Files.write(dir.resolve(DiskMarkovChain.INDEX_FILE), "not a chain".getBytes());
+            assertThrows(IOException.class, () -> DiskMarkovChain.open(dir, 10));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.cis1200;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded, least-recently-used cache of the distributions of a chain, keyed
+ * by source token.
+ * <p>
+ * The cache is size-aware: each distribution is weighed by its number of
+ * distinct successors (at least 1), and the least recently used
+ * distributions are evicted once the total weight exceeds the capacity. A
+ * distribution that is larger than the whole capacity is still returned, but
+ * evicts everything else.
+ * <p>
+ * The cache counts its hits, misses and evictions and the time spent
+ * loading, so that its hit rate can be monitored. It is safe to use from
+ * multiple threads; loads happen outside of the lock, so two threads that
+ * miss on the same token at once may both load it.
+ */
+class DistributionCache {
+
+    private final long capacity;
+    private final Function<String, ProbabilityDistribution<String>> loader;
+
+    // in access order, least recently used first
+    private final LinkedHashMap<String, ProbabilityDistribution<String>> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long loadNanos = 0;
+
+    /**
+     * @param capacity - the maximum total weight of the cached distributions
+     * @param loader   - loads the distribution of a token on a miss, or
+     *                 returns null if the token has none
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    DistributionCache(long capacity, Function<String, ProbabilityDistribution<String>> loader) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.loader = loader;
+    }
+
+    private static int weigh(ProbabilityDistribution<String> pd) {
+        return Math.max(1, pd.keySet().size());
+    }
+
+    /**
+     * Returns the distribution of the given token, loading it on a miss.
+     *
+     * @param token - the source token
+     * @return its distribution, or null if it has none
+     */
+    ProbabilityDistribution<String> get(String token) {
+        synchronized (this) {
+            ProbabilityDistribution<String> pd = entries.get(token);
+            if (pd != null) {
+                hits++;
+                return pd;
+            }
+            misses++;
+        }
+        long start = System.nanoTime();
+        ProbabilityDistribution<String> pd = loader.apply(token);
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            loadNanos += elapsed;
+            if (pd != null && !entries.containsKey(token)) {
+                entries.put(token, pd);
+                weight += weigh(pd);
+                evict(token);
+            }
+        }
+        return pd;
+    }
+
+    // evicts least recently used entries other than keep until the weight
+    // fits the capacity
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, ProbabilityDistribution<String>>> it =
+                entries.entrySet().iterator();
+        while (weight > capacity && it.hasNext()) {
+            Map.Entry<String, ProbabilityDistribution<String>> eldest = it.next();
+            if (!eldest.getKey().equals(keep)) {
+                weight -= weigh(eldest.getValue());
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+
+    synchronized long hitCount() {
+        return hits;
+    }
+
+    synchronized long missCount() {
+        return misses;
+    }
+
+    synchronized long evictionCount() {
+        return evictions;
+    }
+
+    synchronized long totalLoadNanos() {
+        return loadNanos;
+    }
+
+    /** @return the total weight of the cached distributions */
+    synchronized long weight() {
+        return weight;
+    }
+
+    /** @return the number of cached distributions */
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,394 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A variant of {@link ProbabilityDistribution} for workloads that keep
+ * recording while they pick, such as a bot that keeps training while it is
+ * serving walks. A {@link CompiledDistribution} would have to be rebuilt after
+ * every {@code record}; this class instead keeps its counts in a Fenwick
+ * (binary indexed) tree so that both recording and picking are cheap.
+ * {@link ProbabilityDistribution} switches to one of these by itself once it
+ * sees records and picks interleave.
+ * <p>
+ * Every distinct element owns a fixed slot of an array that has room to
+ * spare, and the slots are in sorted order with empty slots (count 0) between
+ * them, so {@link #pick(int)} and {@link #index} agree exactly with
+ * {@link ProbabilityDistribution} for the same records. Slot {@code i} of the
+ * tree covers the counts of the slots {@code (i - lowbit(i), i]}. A new
+ * element goes into a free slot between its neighbours, which is one tree
+ * update; only when its neighbours are in adjacent slots are the elements of
+ * the smallest enclosing block that is sparse enough spread out evenly again
+ * (the scheme of a packed-memory array), and the array doubles once it is
+ * half full. This gives:
+ * <ul>
+ * <li>{@code record} of an element that was already seen: O(log n)
+ * <li>{@code record} of a new element: O(log n) when there is a free slot
+ * between its neighbours, and amortized O(log^2 n) overall
+ * <li>{@code pick(int)}, {@code index} and {@code count}: O(log n)
+ * </ul>
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T> the type of the elements in the distribution
+ */
+class FenwickDistribution<T extends Comparable<T>> {
+
+    // the smallest block that is spread out again, as a power of two
+    private static final int MIN_BLOCK_BITS = 3;
+    private static final int INITIAL_CAPACITY = 1 << MIN_BLOCK_BITS;
+
+    // INVARIANT: the non-null keys are sorted and distinct; the capacity is a
+    // power of two and at least twice the number of keys
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    // INVARIANT: counts[i] > 0 is the number of occurrences of keys[i], and
+    // counts[i] == 0 where keys[i] is null
+    private int[] counts = new int[INITIAL_CAPACITY];
+    // 1-based Fenwick tree over counts
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int size = 0;
+    // INVARIANT: total is the sum of counts
+    private int total = 0;
+
+    /**
+     * Constructs an empty distribution.
+     */
+    public FenwickDistribution() {
+    }
+
+    /**
+     * Constructs a distribution with the given counts, spread over twice as
+     * many slots, in linear time.
+     *
+     * @param records - the count of each element, all positive
+     */
+    FenwickDistribution(SortedMap<T, Integer> records) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 2 * records.size()) {
+            capacity *= 2;
+        }
+        keys = new Object[capacity];
+        counts = new int[capacity];
+        tree = new int[capacity + 1];
+        for (Map.Entry<T, Integer> entry : records.entrySet()) {
+            int slot = (int) ((long) size * capacity / records.size());
+            keys[slot] = entry.getKey();
+            counts[slot] = entry.getValue();
+            total += entry.getValue();
+            size++;
+        }
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * Total number of instances that have been added via record().
+     *
+     * @return the number of records in the distribution
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Add an instance to the distribution. If the element already exists in
+     * the distribution, it will increment the number of occurrences of that
+     * element.
+     *
+     * @param t - an element to add to the distribution
+     * @throws IllegalArgumentException when t is null
+     */
+    public void record(T t) {
+        record(t, 1);
+    }
+
+    /**
+     * Records {@code count} occurrences of {@code t} at once, as if it had been
+     * passed to {@link #record(Comparable)} that many times.
+     *
+     * @param t     - the element to record
+     * @param count - the number of occurrences, assumed positive
+     * @throws IllegalArgumentException when t is null
+     */
+    void record(T t, int count) {
+        if (t == null) {
+            throw new IllegalArgumentException("Cannot record null");
+        }
+        int slot = search(t);
+        if (slot >= 0) {
+            counts[slot] += count;
+            add(slot, count);
+        } else {
+            insert(-slot - 2, t, count);
+        }
+        total += count;
+    }
+
+    // the slot of t, or -(pred + 2) where pred is the slot of the greatest
+    // key less than t, or -1 if there is none
+    @SuppressWarnings("unchecked")
+    private int search(T t) {
+        int lo = 0;
+        int hi = keys.length - 1;
+        int pred = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            // the first key at or after mid; the gaps are short
+            int m = mid;
+            while (m <= hi && keys[m] == null) {
+                m++;
+            }
+            if (m > hi) {
+                hi = mid - 1;
+                continue;
+            }
+            int c = ((T) keys[m]).compareTo(t);
+            if (c == 0) {
+                return m;
+            } else if (c < 0) {
+                pred = m;
+                lo = m + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return -(pred + 2);
+    }
+
+    // adds delta to the count of slot in the tree
+    private void add(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // records count occurrences of a new element right after the key in slot
+    // pred (or first, if pred is -1)
+    private void insert(int pred, T t, int count) {
+        if (2 * (size + 1) > keys.length) {
+            grow(t, count);
+            return;
+        }
+        int succ = pred + 1;
+        while (succ < keys.length && keys[succ] == null) {
+            succ++;
+        }
+        if (succ - pred > 1) {
+            int slot = (pred + succ) >>> 1;
+            keys[slot] = t;
+            counts[slot] = count;
+            size++;
+            add(slot, count);
+            return;
+        }
+        // no free slot between the neighbours: spread out the smallest
+        // aligned block around them whose density stays under its threshold,
+        // which falls from 1 for the smallest blocks to 1/2 for the whole
+        // array. The whole array is at most half full, so this always stops
+        int levels = Integer.numberOfTrailingZeros(keys.length);
+        int position = Math.max(pred, 0);
+        for (int bits = MIN_BLOCK_BITS; ; bits++) {
+            int width = 1 << bits;
+            int start = position & -width;
+            int used = 1;
+            for (int i = start; i < start + width; i++) {
+                if (keys[i] != null) {
+                    used++;
+                }
+            }
+            double threshold = bits >= levels ? 0.5
+                    : 1 - 0.5 * (bits - MIN_BLOCK_BITS) / (levels - MIN_BLOCK_BITS);
+            if (used <= threshold * width) {
+                spread(start, width, used, t, count);
+                return;
+            }
+        }
+    }
+
+    // spreads the keys of the block [start, start + width), plus the new
+    // element t with count occurrences, evenly over the block, and fixes the
+    // tree
+    @SuppressWarnings("unchecked")
+    private void spread(int start, int width, int used, T t, int count) {
+        Object[] blockKeys = new Object[used];
+        int[] blockCounts = new int[used];
+        int n = 0;
+        boolean placed = false;
+        for (int i = start; i < start + width; i++) {
+            if (keys[i] == null) {
+                continue;
+            }
+            if (!placed && ((T) keys[i]).compareTo(t) > 0) {
+                blockKeys[n] = t;
+                blockCounts[n++] = count;
+                placed = true;
+            }
+            blockKeys[n] = keys[i];
+            blockCounts[n++] = counts[i];
+            keys[i] = null;
+            counts[i] = 0;
+        }
+        if (!placed) {
+            blockKeys[n] = t;
+            blockCounts[n] = count;
+        }
+        for (int i = 0; i < used; i++) {
+            int slot = start + (int) ((long) i * width / used);
+            keys[slot] = blockKeys[i];
+            counts[slot] = blockCounts[i];
+        }
+        size++;
+        // the nodes inside the block cover only its slots, so they are
+        // rebuilt from its counts in linear time; the nodes that cover the
+        // whole block just gain the new element
+        int end = start + width;
+        for (int i = start + 1; i < end; i++) {
+            tree[i] = counts[i - 1];
+        }
+        for (int i = start + 1; i < end; i++) {
+            int parent = i + (i & -i);
+            if (parent < end) {
+                tree[parent] += tree[i];
+            }
+        }
+        for (int i = end; i < tree.length; i += i & -i) {
+            tree[i] += count;
+        }
+    }
+
+    // doubles the capacity, spreading the keys and the new element t evenly
+    // over the new array
+    private void grow(T t, int count) {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        // the root of the new tree covers every slot, so it holds the total;
+        // spread rebuilds every other node and adds the new element to it
+        tree = new int[capacity + 1];
+        tree[capacity] = total;
+        spread(0, capacity, size + 1, t, count);
+    }
+
+    /**
+     * Picks an instance of the distribution according to the provided
+     * NumberGenerator. See {@link ProbabilityDistribution#pick(NumberGenerator)}.
+     *
+     * @param generator - uses the generator to pick a particular element
+     * @return the chosen element of the distribution
+     * @throws IllegalArgumentException if a number received from the generator
+     *                                  is out of range
+     */
+    public T pick(NumberGenerator generator) {
+        return pick(generator.next(total));
+    }
+
+    /**
+     * Picks an element out of the distribution non-randomly according to the
+     * provided index. See {@link ProbabilityDistribution#pick(int)} for how
+     * indices map to elements.
+     *
+     * @param index - use this to pick a particular element
+     * @return the chosen element of the distribution
+     * @throws IllegalArgumentException if index is less than zero or not less
+     *                                  than the total number of records
+     */
+    @SuppressWarnings("unchecked")
+    public T pick(int index) {
+        if (index >= total || index < 0) {
+            throw new IllegalArgumentException(
+                    "Index has to be less than or " +
+                            "equal to the total " + "number of records in the PD"
+            );
+        }
+        // descend the tree, skipping every block whose counts all lie at or
+        // below index; empty slots count 0, so this lands on a key
+        int pos = 0;
+        int remaining = index;
+        for (int step = keys.length; step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                pos = next;
+                remaining -= tree[next];
+            }
+        }
+        return (T) keys[pos];
+    }
+
+    /**
+     * Counts the number of occurrences of an element in the distribution.
+     *
+     * @param t - the element you want to get the count of
+     * @return the number of occurrences of the provided element
+     * @throws IllegalArgumentException when t is not in the distribution
+     */
+    public int count(T t) {
+        return counts[find(t)];
+    }
+
+    /**
+     * Returns the index of the element such that pick(index) will return the
+     * element.
+     *
+     * @param element - the element to find the index of
+     * @return the index of the specified element
+     * @throws IllegalArgumentException if the element is not in the
+     *                                  distribution
+     */
+    public int index(T element) {
+        int sum = 0;
+        for (int i = find(element); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private int find(T element) {
+        int slot = element == null ? -1 : search(element);
+        if (slot < 0) {
+            throw new IllegalArgumentException("element " + element + " not in the distribution");
+        }
+        return slot;
+    }
+
+    /**
+     * @return a set containing all elements in the distribution, in sorted
+     *         order
+     */
+    @SuppressWarnings("unchecked")
+    public Set<T> keySet() {
+        Set<T> set = new TreeSet<>();
+        for (Object key : keys) {
+            if (key != null) {
+                set.add((T) key);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Print the distribution in the same format as
+     * {@link ProbabilityDistribution#toString()}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder();
+        res.append("{");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                continue;
+            }
+            res.append(" \"");
+            res.append(keys[i]);
+            res.append("\":");
+            res.append(counts[i]);
+            res.append(" ");
+        }
+        res.append("}");
+        return res.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package org.cis1200;
+
+/**
+ * A read-only bigram chain whose tokens are identified by dense {@code int}
+ * IDs, as stored by {@link CompactMarkovChain} and
+ * {@link MappedMarkovChain}. Picking works exactly as for
+ * {@link ProbabilityDistribution#pick(int)}, so every implementation follows
+ * the same walk as the {@link MarkovChain} it was built from.
+ * <p>
+ * {@link IdChainIterator} walks any {@code IdChain}.
+ */
+interface IdChain {
+    /**
+     * @return the ID of {@link MarkovChain#END_TOKEN}, or
+     *         {@link Vocabulary#MISSING} if the chain is empty
+     */
+    int endId();
+
+    /**
+     * @return the total count of start tokens
+     */
+    int startTotal();
+
+    /**
+     * @param index - an index into the start token distribution
+     * @return the ID of the start token at that index
+     * @throws IllegalArgumentException if index is out of range
+     */
+    int pickStart(int index);
+
+    /**
+     * @param id - a token ID
+     * @return the total count of bigrams starting with that token
+     */
+    int rowTotal(int id);
+
+    /**
+     * @param id    - a token ID
+     * @param index - an index into that token's bigram distribution
+     * @return the ID of the successor at that index
+     * @throws IllegalArgumentException if index is out of range
+     */
+    int pickSuccessor(int id, int index);
+
+    /**
+     * @param id - a token ID
+     * @return the token with that ID
+     */
+    String token(int id);
+}
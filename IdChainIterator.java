@@ -0,0 +1,53 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A walk through an {@link IdChain}, such as a {@link CompactMarkovChain}.
+ * This behaves exactly like
+ * {@link MarkovChainIterator}: it draws one number from the
+ * {@code NumberGenerator} for the start token, then one more for each call
+ * to {@link #next()}, and it ends at {@code END_TOKEN} or as soon as the
+ * generator provides an invalid choice.
+ * <p>
+ * It is a thin adapter over an {@link IdWalk}, which does the walking by ID;
+ * each ID is only turned back into its token as it is returned.
+ */
+class IdChainIterator implements Iterator<String> {
+
+    private final IdChain chain;
+    private final IdWalk walk;
+
+    /**
+     * Constructs an iterator that follows the path specified by the given
+     * {@code NumberGenerator}. If the number generator can not provide a valid
+     * start index, or if there are no start tokens, the iterator is empty.
+     *
+     * @param chain the chain to walk (assumed not null)
+     * @param ng    the number generator to use for this walk (assumed not null)
+     */
+    IdChainIterator(IdChain chain, NumberGenerator ng) {
+        this.chain = chain;
+        this.walk = new IdWalk(chain, ng);
+    }
+
+    /**
+     * @return true if {@link #next()} will return a non-{@code END_TOKEN}
+     *         String and false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        return walk.hasNext();
+    }
+
+    /**
+     * @return the next token in the walk
+     * @throws NoSuchElementException if the walk has reached
+     *                                {@code END_TOKEN} or the number generator
+     *                                provides an invalid choice
+     */
+    @Override
+    public String next() {
+        return chain.token(walk.nextInt());
+    }
+}
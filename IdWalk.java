@@ -0,0 +1,165 @@
+package org.cis1200;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * A walk through an {@link IdChain} that yields token IDs instead of tokens.
+ * It follows exactly the same path as {@link MarkovChainIterator} for the
+ * same {@code NumberGenerator}: one number is drawn for the start token, then
+ * one more for each call to {@link #nextInt()}, and the walk ends at
+ * {@code END_TOKEN} or as soon as the generator provides an invalid choice.
+ * <p>
+ * Each step is a range check, a binary search over primitive arrays and an
+ * {@code int} comparison against the ID of {@code END_TOKEN}; nothing is
+ * allocated and no exception is thrown for an invalid choice. Use
+ * {@link #forEachRemaining(IntConsumer)}, or {@link #walk} to avoid creating
+ * the iterator at all, so that the IDs are never boxed.
+ */
+class IdWalk implements PrimitiveIterator.OfInt {
+
+    private final IdChain chain;
+    private final int endId;
+
+    // stores the source of numbers that determine the path of ths walk
+    private final NumberGenerator ng;
+
+    // the next ID to return, or Vocabulary.MISSING once the walk is invalid
+    private int currId;
+
+    /**
+     * Constructs a walk that follows the path specified by the given
+     * {@code NumberGenerator}. If the number generator can not provide a valid
+     * start index, or if there are no start tokens, the walk is empty.
+     *
+     * @param chain the chain to walk (assumed not null)
+     * @param ng    the number generator to use for this walk (assumed not null)
+     */
+    IdWalk(IdChain chain, NumberGenerator ng) {
+        this.chain = chain;
+        this.endId = chain.endId();
+        this.ng = ng;
+        this.currId = start(chain, ng);
+    }
+
+    // draws a number below total from ng, or returns -1 if the generator does
+    // not provide one
+    private static int draw(NumberGenerator ng, int total) {
+        if (total <= 0) {
+            return -1;
+        }
+        int n;
+        try {
+            n = ng.next(total);
+        } catch (RuntimeException e) {
+            // a generator that fails ends the walk, as in MarkovChainIterator
+            return -1;
+        }
+        return n < total ? n : -1;
+    }
+
+    // the first ID of a walk, or MISSING if there is none
+    private static int start(IdChain chain, NumberGenerator ng) {
+        int n = draw(ng, chain.startTotal());
+        return n < 0 ? Vocabulary.MISSING : chain.pickStart(n);
+    }
+
+    // the successor of id on a walk, or MISSING if the generator gives an
+    // invalid choice
+    private static int step(IdChain chain, NumberGenerator ng, int id) {
+        int n = draw(ng, chain.rowTotal(id));
+        return n < 0 ? Vocabulary.MISSING : chain.pickSuccessor(id, n);
+    }
+
+    /**
+     * Walks the chain without creating an iterator, passing each ID of the walk
+     * to {@code sink} in order. The IDs and the numbers drawn from {@code ng}
+     * are the same as for a {@code IdWalk}; like its {@link #nextInt()}, an
+     * ID is only passed on once a valid successor of it has been drawn.
+     *
+     * @param chain the chain to walk (assumed not null)
+     * @param ng    the number generator to use for this walk (assumed not null)
+     * @param sink  receives the IDs of the walk (assumed not null)
+     * @return the number of IDs passed to sink
+     */
+    static int walk(IdChain chain, NumberGenerator ng, IntConsumer sink) {
+        int endId = chain.endId();
+        int count = 0;
+        int id = start(chain, ng);
+        while (id != Vocabulary.MISSING && id != endId) {
+            int next = step(chain, ng, id);
+            if (next == Vocabulary.MISSING) {
+                break;
+            }
+            sink.accept(id);
+            count++;
+            id = next;
+        }
+        return count;
+    }
+
+    /**
+     * Walks the chain like {@link #walk}, but lets {@code sink} stop the walk
+     * early by returning false.
+     * <p>
+     * Unlike {@link #walk}, each ID is offered to {@code sink} <i>before</i>
+     * its successor is drawn, so a walk that sink stops draws no number for
+     * the successor of the ID it stopped at. In exchange, if the draw after
+     * the last ID offered turns out to be invalid, that ID is not part of the
+     * walk even though sink has seen it; the result tells the caller so.
+     *
+     * @param chain the chain to walk (assumed not null)
+     * @param ng    the number generator to use for this walk (assumed not null)
+     * @param sink  is offered the IDs of the walk, and returns whether to go
+     *              on (assumed not null)
+     * @return -1 if sink stopped the walk; otherwise the number of IDs in the
+     *         walk, which is the number offered to sink, or one less if the
+     *         walk ended with an invalid choice
+     */
+    static int walkWhile(IdChain chain, NumberGenerator ng, IntPredicate sink) {
+        int endId = chain.endId();
+        int count = 0;
+        int id = start(chain, ng);
+        while (id != Vocabulary.MISSING && id != endId) {
+            if (!sink.test(id)) {
+                return -1;
+            }
+            id = step(chain, ng, id);
+            if (id == Vocabulary.MISSING) {
+                break;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return true if {@link #nextInt()} may return another ID, and false once
+     *         the walk has reached {@code END_TOKEN} or become invalid
+     */
+    @Override
+    public boolean hasNext() {
+        return currId != Vocabulary.MISSING && currId != endId;
+    }
+
+    /**
+     * @return the ID of the next token in the walk
+     * @throws NoSuchElementException if the walk has reached
+     *                                {@code END_TOKEN} or the number generator
+     *                                provides an invalid choice
+     */
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int temp = currId;
+        currId = step(chain, ng, temp);
+        if (currId == Vocabulary.MISSING) {
+            throw new NoSuchElementException();
+        }
+        return temp;
+    }
+}
@@ -0,0 +1,121 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/** Tests for IdWalk and the ID walks of CompactMarkovChain */
+public class IdWalkTest {
+
+    @Test
+    public void testIdWalkMatchesWalk() {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(1500, 300, 40);
+        CompactMarkovChain cmc = mc.compact();
+        for (long seed = 0; seed < 200; seed++) {
+            List<String> expected = new ArrayList<>();
+            mc.getWalk(new RandomNumberGenerator(seed)).forEachRemaining(expected::add);
+
+            List<String> fromIterator = new ArrayList<>();
+            PrimitiveIterator.OfInt it = cmc.getIdWalk(new RandomNumberGenerator(seed));
+            it.forEachRemaining((int id) -> fromIterator.add(cmc.token(id)));
+            assertEquals(expected, fromIterator);
+
+            List<String> fromSink = new ArrayList<>();
+            int count = cmc.walkIds(
+                    new RandomNumberGenerator(seed), id -> fromSink.add(cmc.token(id))
+            );
+            assertEquals(expected, fromSink);
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    @Test
+    public void testInvalidChoicesEndTheWalk() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        CompactMarkovChain cmc = mc.compact();
+        // 3 is out of range for "table", so only "a" is returned
+        int[] draws = { 0, 1, 3 };
+        int[] drawn = { 0 };
+        PrimitiveIterator.OfInt it = cmc.getIdWalk(bound -> draws[drawn[0]++]);
+        assertEquals("a", cmc.token(it.nextInt()));
+        assertTrue(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::nextInt);
+        assertFalse(it.hasNext());
+
+        // a generator that fails ends the walk
+        int count = cmc.walkIds(bound -> {
+            throw new IllegalStateException();
+        }, id -> fail());
+        assertEquals(0, count);
+        assertFalse(new MarkovChain().compact().getIdWalk(new RandomNumberGenerator()).hasNext());
+
+        // walkWhile offers "a" and "table" before finding that 3 is invalid,
+        // so the walk only has "a"
+        List<String> offered = new ArrayList<>();
+        drawn[0] = 0;
+        count = cmc.walkIdsWhile(bound -> draws[drawn[0]++], id -> offered.add(cmc.token(id)));
+        assertEquals(Arrays.asList("a", "table"), offered);
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void testWalkWhileStopsBeforeDrawing() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        CompactMarkovChain cmc = mc.compact();
+        int[] drawn = { 0 };
+        NumberGenerator ng = bound -> {
+            drawn[0]++;
+            return 0;
+        };
+        // stopping at "chair" draws only for "a" and for its successor
+        assertEquals(-1, cmc.walkIdsWhile(ng, id -> !cmc.token(id).equals("chair")));
+        assertEquals(2, drawn[0]);
+        // a walk that runs to its end draws like walkIds
+        int[] seen = { 0 };
+        NumberGenerator chair = new ListNumberGenerator(new int[] { 0, 0, 0 });
+        assertEquals(2, cmc.walkIdsWhile(chair, id -> ++seen[0] > 0));
+        assertEquals(2, seen[0]);
+    }
+
+    @Test
+    public void testWalkDoesNotAllocate() {
+        if (!(ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // one long tweet, so that walks are thousands of steps long
+        Random r = new Random(1500);
+        List<String> tweet = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            tweet.add("w" + r.nextInt(100));
+        }
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(tweet.iterator());
+        CompactMarkovChain cmc = mc.compact();
+        NumberGenerator ng = new RandomNumberGenerator(1500);
+        long[] sum = new long[1];
+        java.util.function.IntConsumer sink = id -> sum[0] += id;
+
+        // warm up, then count steps and bytes allocated by many more walks
+        for (int i = 0; i < 20; i++) {
+            cmc.walkIds(ng, sink);
+        }
+        long steps = 0;
+        long before = threads.getThreadAllocatedBytes(thread);
+        while (steps < 1_000_000) {
+            steps += cmc.walkIds(ng, sink);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // far less than one byte per step: only measurement noise
+        assertTrue(allocated < 16 * 1024, allocated + " bytes allocated in " + steps + " steps");
+    }
+}
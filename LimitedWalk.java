@@ -0,0 +1,128 @@
+package org.cis1200;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * A walk that stops early once it reaches its {@link WalkLimits}, and
+ * reports why it stopped.
+ * <p>
+ * It returns a prefix of the tokens of an underlying walk (such as a
+ * {@link MarkovChainIterator}), drawing exactly the same numbers from the
+ * {@code NumberGenerator} for them. To tell whether the next token fits the
+ * character budget, it fetches that token from the underlying walk when
+ * {@link #hasNext()} is called.
+ */
+public class LimitedWalk implements Iterator<String> {
+
+    /** Why a walk stopped. */
+    public enum StopReason {
+        /** the walk has not stopped yet */
+        NOT_STOPPED,
+        /** the walk reached {@code END_TOKEN}, or there was nothing to walk */
+        END,
+        /** the number generator made an invalid choice */
+        INVALID_CHOICE,
+        /** the walk returned the most tokens allowed, and had more */
+        MAX_TOKENS,
+        /** the next token would have gone over the character budget */
+        MAX_CHARS,
+        /**
+         * the walk was steered to stop after a token that can end it, before
+         * it ended by itself
+         */
+        STEERED
+    }
+
+    private final Iterator<String> walk;
+    private final WalkLimits limits;
+    private final Predicate<String> canEnd;
+
+    private int tokens = 0;
+    private long chars = 0;
+    // the last token returned, or null before the first
+    private String last;
+    // the next token to return, already fetched from walk, or null
+    private String pending;
+    private StopReason reason = StopReason.NOT_STOPPED;
+
+    /**
+     * @param walk   - the walk to limit (assumed not null)
+     * @param limits - the limits to apply (assumed not null)
+     * @param canEnd - tells whether a walk may end right after a token; used
+     *               for steering (assumed not null)
+     */
+    public LimitedWalk(Iterator<String> walk, WalkLimits limits, Predicate<String> canEnd) {
+        this.walk = walk;
+        this.limits = limits;
+        this.canEnd = canEnd;
+    }
+
+    // the characters that token adds to the walk
+    private long width(String token) {
+        return token.length() + (tokens == 0 ? 0 : 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending != null) {
+            return true;
+        }
+        if (reason != StopReason.NOT_STOPPED) {
+            return false;
+        }
+        // the underlying walk knows whether it has ended without drawing, so
+        // a walk that ends right at a limit is reported as ending
+        if (!walk.hasNext()) {
+            reason = StopReason.END;
+        } else if (tokens >= limits.getMaxTokens()) {
+            reason = StopReason.MAX_TOKENS;
+        } else if (last != null && limits.shouldSteer(tokens, chars) && canEnd.test(last)) {
+            reason = StopReason.STEERED;
+        } else {
+            try {
+                pending = walk.next();
+            } catch (NoSuchElementException e) {
+                reason = StopReason.INVALID_CHOICE;
+                return false;
+            }
+            if (chars + width(pending) > limits.getMaxChars()) {
+                pending = null;
+                reason = StopReason.MAX_CHARS;
+            }
+        }
+        return pending != null;
+    }
+
+    /**
+     * @return the next token of the walk
+     * @throws NoSuchElementException if the walk has stopped
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        chars += width(pending);
+        tokens++;
+        last = pending;
+        pending = null;
+        return last;
+    }
+
+    /**
+     * @return why the walk stopped, or {@link StopReason#NOT_STOPPED} if
+     *         {@link #hasNext()} has not yet returned false
+     */
+    public StopReason getStopReason() {
+        return reason;
+    }
+
+    /**
+     * @return the number of tokens returned so far
+     */
+    public int getTokenCount() {
+        return tokens;
+    }
+}
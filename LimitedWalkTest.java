@@ -0,0 +1,125 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for LimitedWalk and WalkLimits */
+public class LimitedWalkTest {
+
+    private static MarkovChain illustrativeExample() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        mc.addSequence(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?").iterator());
+        return mc;
+    }
+
+    // loops through "a banana ! and" forever
+    private static NumberGenerator loop() {
+        return new ListNumberGenerator(new int[] { 0, 0, 0, 0, 0 });
+    }
+
+    private static List<String> walk(Iterator<String> it) {
+        List<String> tokens = new ArrayList<>();
+        it.forEachRemaining(tokens::add);
+        return tokens;
+    }
+
+    @Test
+    public void testMaxTokens() {
+        MarkovModel mc = illustrativeExample();
+        LimitedWalk walk = mc.getWalk(loop(), new WalkLimits(6, 1000));
+        assertEquals(LimitedWalk.StopReason.NOT_STOPPED, walk.getStopReason());
+        assertEquals(Arrays.asList("a", "banana", "!", "and", "a", "banana"), walk(walk));
+        assertEquals(LimitedWalk.StopReason.MAX_TOKENS, walk.getStopReason());
+        assertEquals(6, walk.getTokenCount());
+        assertThrows(NoSuchElementException.class, walk::next);
+    }
+
+    @Test
+    public void testEndingAtMaxTokensIsNotCutOff() {
+        // "a chair" ends by itself after exactly 2 tokens
+        for (MarkovModel model : Arrays.<MarkovModel>asList(
+                illustrativeExample(), illustrativeExample().compact())) {
+            LimitedWalk walk = model.getWalk(
+                    new ListNumberGenerator(new int[] { 0, 2, 0 }), new WalkLimits(2, 1000)
+            );
+            assertEquals(Arrays.asList("a", "chair"), walk(walk));
+            assertEquals(LimitedWalk.StopReason.END, walk.getStopReason());
+            // "a chair" is also exactly 7 characters
+            walk = model.getWalk(
+                    new ListNumberGenerator(new int[] { 0, 2, 0 }), new WalkLimits(100, 7)
+            );
+            assertEquals(Arrays.asList("a", "chair"), walk(walk));
+            assertEquals(LimitedWalk.StopReason.END, walk.getStopReason());
+        }
+    }
+
+    @Test
+    public void testMaxChars() {
+        // "a banana ! and" is 14 characters; "a" would make 16
+        LimitedWalk walk = illustrativeExample().getWalk(loop(), new WalkLimits(100, 15));
+        assertEquals(Arrays.asList("a", "banana", "!", "and"), walk(walk));
+        assertEquals(LimitedWalk.StopReason.MAX_CHARS, walk.getStopReason());
+    }
+
+    @Test
+    public void testSteerTowardEnd() {
+        // after 4 tokens, stop at the first token that can end a walk
+        WalkLimits limits = new WalkLimits(10, 1000, 0.4);
+        MarkovChain mc = illustrativeExample();
+        // "chair" can end a walk, or go on to "and"
+        mc.addSequence(Arrays.asList("a", "chair", "and", "a", "banana").iterator());
+        for (MarkovModel model : Arrays.<MarkovModel>asList(mc, mc.compact())) {
+            // loops through "a chair and" forever
+            LimitedWalk walk = model.getWalk(
+                    new ListNumberGenerator(new int[] { 0, 3, 1 }), limits
+            );
+            assertEquals(Arrays.asList("a", "chair", "and", "a", "chair"), walk(walk));
+            assertEquals(LimitedWalk.StopReason.STEERED, walk.getStopReason());
+        }
+        // a walk that ends by itself is not reported as steered
+        LimitedWalk walk = illustrativeExample().getWalk(
+                new ListNumberGenerator(new int[] { 0, 0, 0, 0, 0, 0, 1 }), limits
+        );
+        assertEquals(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?"), walk(walk));
+        assertEquals(LimitedWalk.StopReason.END, walk.getStopReason());
+    }
+
+    @Test
+    public void testEndAndInvalidChoice() {
+        MarkovChain mc = illustrativeExample();
+        LimitedWalk walk = mc.getWalk(
+                new ListNumberGenerator(new int[] { 0, 2, 0 }), WalkLimits.NONE
+        );
+        assertEquals(Arrays.asList("a", "chair"), walk(walk));
+        assertEquals(LimitedWalk.StopReason.END, walk.getStopReason());
+
+        int[] draws = { 0, 7 };
+        int[] drawn = { 0 };
+        walk = mc.getWalk(bound -> draws[drawn[0]++], WalkLimits.NONE);
+        assertFalse(walk.hasNext());
+        assertEquals(LimitedWalk.StopReason.INVALID_CHOICE, walk.getStopReason());
+    }
+
+    @Test
+    public void testTwitterBotTweetIsBounded() {
+        TwitterBot bot = new TwitterBot(illustrativeExample());
+        assertEquals("a banana! and a", bot.generateTweet(loop(), new WalkLimits(5, 1000)));
+        assertEquals(
+                "a banana! and a banana?",
+                bot.generateTweet(new ListNumberGenerator(new int[] { 0, 0, 0, 0, 0, 0, 1 }),
+                        new WalkLimits(10, 1000, 0.4))
+        );
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new WalkLimits(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new WalkLimits(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new WalkLimits(10, 10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new WalkLimits(10, 10, 1.5));
+    }
+}
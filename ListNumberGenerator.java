@@ -7,7 +7,7 @@ import java.util.List;
  * Produces a deterministic sequence of numbers. This class is implemented for
  * you.
  */
-public class ListNumberGenerator implements NumberGenerator {
+public class ListNumberGenerator implements BulkNumberGenerator {
 
     // INVARIANT: numbers is nonnull and nonempty
     private final int[] numbers;
@@ -82,6 +82,14 @@ public class ListNumberGenerator implements NumberGenerator {
         return Math.min(bound - 1, Math.max(next(), 0));
     }
 
+    /**
+     * @return the next number of the list, unclamped, like {@link #next()}
+     */
+    @Override
+    public int nextBits() {
+        return next();
+    }
+
     @Override
     public String toString() {
         return Arrays.toString(numbers);
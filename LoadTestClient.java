@@ -0,0 +1,139 @@
+package org.cis1200;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput and latency of a {@link TwitterBotServer} by
+ * sending it many requests at once from this process.
+ * <p>
+ * Requests are sent asynchronously with {@link HttpClient}, and a semaphore
+ * keeps exactly {@code concurrency} of them in flight until all have been
+ * sent, so thousands of concurrent requests need no more than a handful of
+ * client threads. The latency of each request is measured from just before
+ * it is sent to when its whole response has arrived.
+ */
+public class LoadTestClient {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    /**
+     * Sends {@code requests} copies of the given request, {@code concurrency}
+     * at a time, and waits for all of them.
+     *
+     * @param request     - the request to send (assumed not null)
+     * @param requests    - the number of requests to send
+     * @param concurrency - the most requests in flight at once
+     * @return the latencies and throughput of the run
+     * @throws IllegalArgumentException if requests or concurrency is not
+     *                                  positive
+     * @throws InterruptedException     if interrupted while waiting
+     */
+    public Report run(HttpRequest request, int requests, int concurrency)
+            throws InterruptedException {
+        if (requests <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("requests and concurrency must be positive");
+        }
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        // failures are already counted, so the outcome of each future is not
+        // needed here
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+        return new Report(latencies, failures.get(), elapsed);
+    }
+
+    /** The outcome of a load test. */
+    public static final class Report {
+        private final long[] sortedLatencies;
+        private final int failures;
+        private final long elapsedNanos;
+
+        Report(long[] latencies, int failures, long elapsedNanos) {
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** @return the number of requests sent */
+        public int getRequestCount() {
+            return sortedLatencies.length;
+        }
+
+        /** @return the number of requests that failed or did not return 200 */
+        public int getFailureCount() {
+            return failures;
+        }
+
+        /** @return requests completed per second over the whole run */
+        public double getThroughput() {
+            return sortedLatencies.length / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Gets a latency percentile, by the nearest-rank method.
+         *
+         * @param p - the percentile, from 0 to 100
+         * @return the latency in nanoseconds that p percent of requests took
+         *         at most
+         * @throws IllegalArgumentException if p is out of range
+         */
+        public long percentileNanos(double p) {
+            if (p < 0 || p > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            int rank = (int) Math.ceil(p / 100 * sortedLatencies.length);
+            return sortedLatencies[Math.max(rank - 1, 0)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "requests=%d failures=%d throughput=%.0f/s p50=%.2fms p99=%.2fms",
+                    getRequestCount(), getFailureCount(), getThroughput(),
+                    percentileNanos(50) / 1e6, percentileNanos(99) / 1e6
+            );
+        }
+    }
+
+    /**
+     * Load-tests a running server and prints the report.
+     *
+     * @param args the URL to request (by default, /tweet on the default port
+     *             of this host), the number of requests (default 10000) and
+     *             the concurrency (default 1000)
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String url = args.length > 0 ? args[0]
+                : "http://localhost:" + TwitterBotServer.DEFAULT_PORT + "/tweet";
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        System.out.println(new LoadTestClient().run(request, requests, concurrency));
+    }
+}
@@ -0,0 +1,177 @@
+package org.cis1200;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code long} keys to non-negative {@code int} values that
+ * stores both in flat primitive arrays, with open addressing and linear
+ * probing. Unlike a {@code HashMap<Long, Integer>}, it allocates no objects
+ * per entry.
+ * <p>
+ * {@code Long.MIN_VALUE} is reserved to mark empty slots and cannot be used as
+ * a key. This class is not thread-safe.
+ */
+class LongIntHashMap {
+
+    /** returned by {@link #get} for keys that are not in the map */
+    static final int MISSING = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    // resize once the table is more than 5/8 full
+    private static final int LOAD_NUMERATOR = 5;
+    private static final int LOAD_DENOMINATOR = 8;
+
+    // INVARIANT: keys.length == values.length is a power of two
+    private long[] keys;
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Constructs an empty map.
+     */
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty map with room for about {@code expected} entries.
+     *
+     * @param expected - the number of entries to size the table for
+     */
+    public LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(
+                Math.max(16, expected * LOAD_DENOMINATOR / LOAD_NUMERATOR) * 2 - 1
+        );
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // spreads the bits of the key so that packed keys that differ only in
+    // their high bits do not collide
+    private static int hash(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * @param key - the key to look up
+     * @return the value for the key, or {@link #MISSING} if it is not present
+     */
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                return values[i];
+            }
+            if (k == EMPTY) {
+                return MISSING;
+            }
+        }
+    }
+
+    /**
+     * Associates the key with the value, replacing any previous value.
+     *
+     * @param key   - the key, which must not be {@code Long.MIN_VALUE}
+     * @param value - the value, which must not be negative
+     * @throws IllegalArgumentException if the key or value is invalid
+     */
+    public void put(long key, int value) {
+        if (key == EMPTY || value < 0) {
+            throw new IllegalArgumentException("Invalid key or value");
+        }
+        if ((size + 1) * LOAD_DENOMINATOR > keys.length * LOAD_NUMERATOR) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds one to the value of the key, which starts at 0 if the key is not
+     * present.
+     *
+     * @param key - the key, which must not be {@code Long.MIN_VALUE}
+     * @return the new value
+     * @throws IllegalArgumentException if the key is invalid or its value
+     *                                  would overflow
+     */
+    public int increment(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Invalid key or value");
+        }
+        if ((size + 1) * LOAD_DENOMINATOR > keys.length * LOAD_NUMERATOR) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) {
+                if (values[i] == Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Invalid key or value");
+                }
+                return ++values[i];
+            }
+            if (k == EMPTY) {
+                keys[i] = key;
+                values[i] = 1;
+                size++;
+                return 1;
+            }
+        }
+    }
+
+    /**
+     * @return the keys of the map, in no particular order
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int n = 0;
+        for (long k : keys) {
+            if (k != EMPTY) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries in the map
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,294 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * A read-only chain that walks a snapshot file (see {@link ChainSnapshot})
+ * directly, by mapping it into memory with {@link FileChannel#map}.
+ * <p>
+ * Nothing is deserialized: {@link #getWalk} and {@link #findWalkChoices}
+ * binary-search the tables in the mapped file, and tokens are only decoded
+ * from their UTF-8 bytes when a walk returns them. The chain therefore costs
+ * almost no heap and creates no garbage for the collector to trace, no matter
+ * how large it is. Since the mapping is backed by the operating system's page
+ * cache, any number of chains in this JVM, and any number of processes on the
+ * same host, that open the same file share a single copy of it in memory.
+ * <p>
+ * The mapping is released when this object is garbage collected. A single
+ * mapping is limited to 2 GB, so larger snapshots cannot be opened.
+ */
+public class MappedMarkovChain implements MarkovModel, IdChain {
+
+    // the whole file; only ever accessed with absolute gets, so it is safe to
+    // share between threads
+    private final ByteBuffer bytes;
+    private final IntBuffer ints;
+    private final ChainSnapshot.Header header;
+    private final int endId;
+
+    private MappedMarkovChain(ByteBuffer bytes, ChainSnapshot.Header header) {
+        this.bytes = bytes;
+        this.ints = bytes.asIntBuffer();
+        this.header = header;
+        this.endId = id(MarkovChain.END_TOKEN);
+    }
+
+    /**
+     * Maps the given snapshot file into memory. Every table is checked in
+     * place, like {@link ChainSnapshot#load} checks them, so a corrupt file
+     * is rejected here rather than failing later in a walk; this reads the
+     * whole file once, but copies none of it to the heap.
+     *
+     * @param file - a file written by {@link CompactMarkovChain#save}
+     * @return a chain that walks the file in place
+     * @throws IOException if the file cannot be mapped or is not a valid
+     *                     snapshot
+     */
+    public static MappedMarkovChain open(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("snapshot too large to map: " + size + " bytes");
+            }
+            // the mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        ChainSnapshot.Header header = ChainSnapshot.Header.read(mapped);
+        ChainSnapshot.checkTables(mapped, header);
+        return new MappedMarkovChain(mapped, header);
+    }
+
+    // finds the position in the running counts at ints[from..to) whose range
+    // contains index, like CompactMarkovChain.search
+    private int search(int from, int to, int index) {
+        if (index < 0 || from == to || index >= ints.get(to - 1)) {
+            throw new IllegalArgumentException(
+                    "Index has to be less than or " +
+                            "equal to the total " + "number of records in the PD"
+            );
+        }
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ints.get(mid) > index) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    // binary-searches the sorted IDs at ints[from..to) for id
+    private int find(int from, int to, int id) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = ints.get(mid);
+            if (v < id) {
+                lo = mid + 1;
+            } else if (v > id) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int endId() {
+        return endId;
+    }
+
+    @Override
+    public int startTotal() {
+        int from = header.startCumulativeOffset();
+        return header.starts == 0 ? 0 : ints.get(from + header.starts - 1);
+    }
+
+    @Override
+    public int pickStart(int index) {
+        int from = header.startCumulativeOffset();
+        int i = search(from, from + header.starts, index);
+        return ints.get(header.startIdsOffset() + (i - from));
+    }
+
+    private int rowStart(int id) {
+        return ints.get(header.rowStartOffset() + id);
+    }
+
+    @Override
+    public int rowTotal(int id) {
+        int start = rowStart(id);
+        int end = rowStart(id + 1);
+        return end == start ? 0 : ints.get(header.cumulativeOffset() + end - 1);
+    }
+
+    @Override
+    public int pickSuccessor(int id, int index) {
+        int cumulative = header.cumulativeOffset();
+        int i = search(cumulative + rowStart(id), cumulative + rowStart(id + 1), index);
+        return ints.get(header.successorsOffset() + (i - cumulative));
+    }
+
+    @Override
+    public String token(int id) {
+        int start = id == 0 ? 0 : ints.get(header.tokenEndOffset() + id - 1);
+        int end = ints.get(header.tokenEndOffset() + id);
+        byte[] utf8 = new byte[end - start];
+        bytes.get(header.tokenOffset() + start, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Looks up the ID of a token by binary search over the sorted tokens of the
+     * file.
+     *
+     * @param token - the token to look up
+     * @return its ID, or {@link Vocabulary#MISSING} if it is not in the chain
+     */
+    int id(String token) {
+        int lo = 0;
+        int hi = header.tokens - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = token(mid).compareTo(token);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return Vocabulary.MISSING;
+    }
+
+    @Override
+    public Iterator<String> getWalk(NumberGenerator ng) {
+        return new IdChainIterator(this, ng);
+    }
+
+    /**
+     * Gets the same walk as {@link #getWalk}, as the IDs of its tokens (see
+     * {@link #token}). Stepping the walk allocates nothing.
+     *
+     * @param ng the path to follow (assumed not null)
+     * @return an iterator over the IDs of the tokens on that path
+     */
+    public PrimitiveIterator.OfInt getIdWalk(NumberGenerator ng) {
+        return new IdWalk(this, ng);
+    }
+
+    /**
+     * Follows the same walk as {@link #getWalk}, passing the ID of each token
+     * to {@code sink} in turn. Unlike {@link #getIdWalk}, this creates no
+     * iterator, so a whole walk allocates nothing.
+     *
+     * @param ng   the path to follow (assumed not null)
+     * @param sink receives the IDs of the tokens on that path (assumed not
+     *             null)
+     * @return the number of tokens in the walk
+     */
+    public int walkIds(NumberGenerator ng, IntConsumer sink) {
+        return IdWalk.walk(this, ng, sink);
+    }
+
+    /**
+     * Generate a list of numbers such that if it is installed as the number
+     * generator for {@link #getWalk}, the tokens returned in sequence will be
+     * the list of provided tokens. The given list is not modified.
+     *
+     * @param tokens an ordered list of tokens that the chain should generate
+     * @return a list of integers representing the walk
+     * @throws IllegalArgumentException if the tokens are null, empty or not a
+     *                                  complete walk of the chain
+     */
+    @Override
+    public List<Integer> findWalkChoices(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty or null tokens");
+        }
+        List<Integer> choices = new ArrayList<>(tokens.size() + 1);
+        Iterator<String> it = tokens.iterator();
+        int curr = id(it.next());
+        choices.add(indexOf(
+                header.startIdsOffset(), header.startCumulativeOffset(), 0, header.starts, curr
+        ));
+        while (curr != endId) {
+            int next = it.hasNext() ? id(it.next()) : endId;
+            choices.add(indexOf(
+                    header.successorsOffset(), header.cumulativeOffset(),
+                    rowStart(curr), rowStart(curr + 1), next
+            ));
+            curr = next;
+        }
+        if (it.hasNext()) {
+            throw new IllegalArgumentException("tokens continue after " + MarkovChain.END_TOKEN);
+        }
+        return choices;
+    }
+
+    // the index that picks id from the row [from, to) of the given tables
+    private int indexOf(int ids, int running, int from, int to, int id) {
+        int i = id == Vocabulary.MISSING ? -1 : find(ids + from, ids + to, id);
+        if (i < 0) {
+            throw new IllegalArgumentException("token is not a valid step of the walk");
+        }
+        i -= ids;
+        return i == from ? 0 : ints.get(running + i - 1);
+    }
+
+    // appends a row in the format of ProbabilityDistribution#toString
+    private void appendRow(StringBuilder res, int ids, int running, int from, int to) {
+        res.append("{");
+        for (int i = from; i < to; i++) {
+            res.append(" \"");
+            res.append(token(ints.get(ids + i)));
+            res.append("\":");
+            int count = ints.get(running + i);
+            res.append(i == from ? count : count - ints.get(running + i - 1));
+            res.append(" ");
+        }
+        res.append("}");
+    }
+
+    /**
+     * Prints the chain in exactly the same format as
+     * {@link MarkovChain#toString()}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder res = new StringBuilder();
+        res.append("startTokens: ");
+        appendRow(res, header.startIdsOffset(), header.startCumulativeOffset(), 0, header.starts);
+        res.append("\nbigramFrequencies:\n");
+        for (int id = 0; id < header.tokens; id++) {
+            if (rowStart(id) == rowStart(id + 1)) {
+                continue;
+            }
+            res.append("\"");
+            res.append(token(id));
+            res.append("\":\t");
+            appendRow(
+                    res, header.successorsOffset(), header.cumulativeOffset(),
+                    rowStart(id), rowStart(id + 1)
+            );
+            res.append("\n");
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/** Tests for MappedMarkovChain */
+public class MappedMarkovChainTest {
+
+    private static List<String> walk(Iterator<String> it) {
+        List<String> tokens = new ArrayList<>();
+        while (it.hasNext()) {
+            tokens.add(it.next());
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testMappedChainMatchesMarkovChain() throws IOException {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(1200, 300, 40);
+        mc.addSequence(Arrays.asList("caf\u00e9", "!").iterator());
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            mc.compact().save(file);
+            MappedMarkovChain mapped = MappedMarkovChain.open(file);
+            assertEquals(mc.toString(), mapped.toString());
+            for (long seed = 0; seed < 100; seed++) {
+                assertEquals(
+                        walk(mc.getWalk(new RandomNumberGenerator(seed))),
+                        walk(mapped.getWalk(new RandomNumberGenerator(seed)))
+                );
+            }
+            List<String> tokens = Arrays.asList("caf\u00e9", "!");
+            List<Integer> choices = mapped.findWalkChoices(tokens);
+            assertEquals(mc.findWalkChoices(new ArrayList<>(tokens)), choices);
+            assertEquals(tokens, walk(mapped.getWalk(new ListNumberGenerator(choices))));
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> mapped.findWalkChoices(Arrays.asList("lamp"))
+            );
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testMappedRejectsCorruptTables() throws IOException {
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            for (int[] corruption : CompactMarkovChainTest.CORRUPTIONS) {
+                CompactMarkovChainTest.corrupt(file, corruption[0], corruption[1]);
+                assertThrows(
+                        IOException.class, () -> MappedMarkovChain.open(file),
+                        Arrays.toString(corruption)
+                );
+            }
+            CompactMarkovChainTest.corruptTokenOrder(file);
+            assertThrows(IOException.class, () -> MappedMarkovChain.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMappedEmptyChain() throws IOException {
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            new MarkovChain().compact().save(file);
+            MappedMarkovChain mapped = MappedMarkovChain.open(file);
+            assertEquals(new MarkovChain().toString(), mapped.toString());
+            assertFalse(mapped.getWalk(new RandomNumberGenerator()).hasNext());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testMappedRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("chain", ".snapshot");
+        try {
+            Files.write(file, "not a snapshot at all".getBytes());
+            assertThrows(IOException.class, () -> MappedMarkovChain.open(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.cis1200;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A Markov Chain is a data structure that tracks the frequency with which one
@@ -107,7 +108,7 @@ import java.util.*;
  * described above.
  *
  */
-public class MarkovChain {
+public class MarkovChain implements MarkovModel {
 
     /** probability distribution of initial tokens in a sentence */
     final ProbabilityDistribution<String> startTokens;
@@ -148,6 +149,109 @@ public class MarkovChain {
         }
     }
 
+    /**
+     * Trains a {@code MarkovChain} on the given training data in parallel,
+     * using the common {@link ForkJoinPool}. The result is identical to
+     * {@link #MarkovChain(List)}.
+     *
+     * @param trainingData - the input sequences of tokens from which to construct
+     *                     the {@code MarkovChain}
+     * @return the trained {@code MarkovChain}
+     * @throws IllegalArgumentException when trainingData is null
+     */
+    public static MarkovChain trainInParallel(List<List<String>> trainingData) {
+        return trainInParallel(trainingData, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Trains a {@code MarkovChain} on the given training data in parallel,
+     * using the given {@link ForkJoinPool}. Each task trains a partial chain
+     * on a slice of the data, and the partial chains are merged (see
+     * {@link MarkovChainTrainer}). The result is identical to
+     * {@link #MarkovChain(List)}.
+     *
+     * @param trainingData - the input sequences of tokens from which to construct
+     *                     the {@code MarkovChain}
+     * @param pool         - the pool to train in
+     * @return the trained {@code MarkovChain}
+     * @throws IllegalArgumentException when trainingData or pool is null
+     */
+    public static MarkovChain trainInParallel(
+            List<List<String>> trainingData, ForkJoinPool pool
+    ) {
+        if (trainingData == null || pool == null) {
+            throw new IllegalArgumentException("Params cannot be null");
+        }
+        // the tasks split by index, so make sure indexing is cheap even when
+        // the data is a LinkedList (as produced by TweetParser)
+        List<List<String>> data = trainingData instanceof RandomAccess
+                ? trainingData
+                : new ArrayList<>(trainingData);
+        return pool.invoke(new MarkovChainTrainer(data, 0, data.size()));
+    }
+
+    /**
+     * Adds all of the training information of {@code other} to this chain, as
+     * if every sequence it was trained on had also been added here.
+     * {@code other} is not modified.
+     *
+     * @param other - the chain to merge into this one
+     * @throws IllegalArgumentException when other is null
+     */
+    public void merge(MarkovChain other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Param is null");
+        }
+        startTokens.merge(other.startTokens);
+        for (Map.Entry<String, ProbabilityDistribution<String>> entry
+                : other.bigramFrequencies.entrySet()) {
+            ProbabilityDistribution<String> current = bigramFrequencies.get(entry.getKey());
+            if (current == null) {
+                current = new ProbabilityDistribution<>();
+                bigramFrequencies.put(entry.getKey(), current);
+            }
+            current.merge(entry.getValue());
+        }
+    }
+
+    /**
+     * Removes all of the training information of {@code other} from this
+     * chain, as if the sequences it was trained on had never been added here.
+     * Tokens and bigrams whose counts drop to zero are evicted, so the chain
+     * only holds what is still part of its training data. {@code other} is
+     * not modified.
+     *
+     * @param other - a chain whose training data was added to this one
+     * @throws IllegalArgumentException when other is null, or has training
+     *                                  data that this chain does not; the
+     *                                  chain is then left unchanged
+     */
+    public void subtract(MarkovChain other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Param is null");
+        }
+        // check every count before changing any, so that a rejected subtract
+        // leaves the chain as it was
+        startTokens.checkSubtract(other.startTokens);
+        for (Map.Entry<String, ProbabilityDistribution<String>> entry
+                : other.bigramFrequencies.entrySet()) {
+            ProbabilityDistribution<String> current = bigramFrequencies.get(entry.getKey());
+            if (current == null) {
+                throw new IllegalArgumentException(entry.getKey() + " is not a key in the chain");
+            }
+            current.checkSubtract(entry.getValue());
+        }
+        startTokens.subtract(other.startTokens);
+        for (Map.Entry<String, ProbabilityDistribution<String>> entry
+                : other.bigramFrequencies.entrySet()) {
+            ProbabilityDistribution<String> current = bigramFrequencies.get(entry.getKey());
+            current.subtract(entry.getValue());
+            if (current.getTotal() == 0) {
+                bigramFrequencies.remove(entry.getKey());
+            }
+        }
+    }
+
     /**
      * Adds a bigram to the Markov Chain information by
      * recording it in the appropriate probability distribution
@@ -252,10 +356,44 @@ public class MarkovChain {
      * @return an {@code Iterator} that yields the tokens on that path
      *
      */
+    @Override
     public Iterator<String> getWalk(NumberGenerator ng) {
         return new MarkovChainIterator(startTokens, bigramFrequencies, ng);
     }
 
+    /**
+     * Gets the walk of {@link #getWalk(NumberGenerator)}, cut short by the
+     * given limits, and steered toward tokens that have ended a training
+     * sequence once the limits are near (see {@link WalkLimits}).
+     *
+     * @param ng     the path to follow (assumed nonnull)
+     * @param limits the limits of the walk (assumed nonnull)
+     * @return a walk that reports why it stopped
+     */
+    @Override
+    public LimitedWalk getWalk(NumberGenerator ng, WalkLimits limits) {
+        return new LimitedWalk(getWalk(ng), limits, token -> {
+            ProbabilityDistribution<String> pd = bigramFrequencies.get(token);
+            return pd != null && pd.keySet().contains(END_TOKEN);
+        });
+    }
+
+    /**
+     * Gets a walk through the Markov Chain that samples every step in constant
+     * time from the alias tables of the distributions (see
+     * {@link ProbabilityDistribution#pickAlias}). Tokens are chosen with the
+     * same probabilities as by {@link #getWalk}, but the same
+     * {@code NumberGenerator} yields a <i>different</i> walk, and the choices
+     * from {@link #findWalkChoices} do not apply. Use this for random walks
+     * once training is done; the tables are built on first use.
+     *
+     * @param ng the source of random numbers (assumed nonnull)
+     * @return an {@code Iterator} that yields the tokens on that path
+     */
+    public Iterator<String> getAliasWalk(NumberGenerator ng) {
+        return new MarkovChainIterator(startTokens, bigramFrequencies, ng, true);
+    }
+
     /**
      * Gets a random walk through the Markov Chain.
      *
@@ -275,7 +413,10 @@ public class MarkovChain {
      * Note that the length of the list of numbers is equal to the length
      * of the list of tokens plus one (for the {@code END_TOKEN}).
      *
-     * This function is implemented for you.
+     * The given list is not modified, and each step is a binary search of the
+     * compiled distribution (see {@link ProbabilityDistribution#index}), so any
+     * kind of list is encoded in a single pass. To encode many sequences, use a
+     * {@link WalkEncoder} on the compacted chain instead.
      *
      * @param tokens an ordered list of tokens that the MarkovChain should generate
      *
@@ -293,25 +434,44 @@ public class MarkovChain {
      *                                  transition to {@code END_TOKEN}
      *                                  </ul>
      */
+    @Override
     public List<Integer> findWalkChoices(List<String> tokens) {
         if (tokens == null || tokens.isEmpty()) {
             throw new IllegalArgumentException("Invalid empty or null tokens");
         }
-        tokens.add(MarkovChain.END_TOKEN);
-        List<Integer> choices = new LinkedList<>();
-
-        String curToken = tokens.remove(0);
+        List<Integer> choices = new ArrayList<>(tokens.size() + 1);
+        Iterator<String> it = tokens.iterator();
+        String curToken = it.next();
         choices.add(startTokens.index(curToken));
 
-        while (!tokens.isEmpty()) {
+        while (!curToken.equals(END_TOKEN)) {
             ProbabilityDistribution<String> curDist = bigramFrequencies.get(curToken);
-            String nextToken = tokens.remove(0);
+            if (curDist == null) {
+                throw new IllegalArgumentException(curToken + " is not a key in the chain");
+            }
+            String nextToken = it.hasNext() ? it.next() : END_TOKEN;
             choices.add(curDist.index(nextToken));
             curToken = nextToken;
         }
+        if (it.hasNext()) {
+            throw new IllegalArgumentException("tokens continue after " + END_TOKEN);
+        }
         return choices;
     }
 
+    /**
+     * Freezes the current training data into a {@link CompactMarkovChain},
+     * which interns every token once and stores the bigrams in primitive
+     * arrays. The compact chain produces exactly the same walks, but takes a
+     * fraction of the memory and walks faster. Later calls to
+     * {@link #addSequence} do not affect it.
+     *
+     * @return a compact copy of this chain
+     */
+    public CompactMarkovChain compact() {
+        return CompactMarkovChain.of(this);
+    }
+
     /**
      * Use this method to print out markov chains with tokens and probability
      * distributions.
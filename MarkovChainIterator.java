@@ -53,6 +53,9 @@ class MarkovChainIterator implements Iterator<String> {
 
     // stores the source of numbers that determine the path of ths walk
     private final NumberGenerator ng;
+    // whether to pick with the constant-time alias tables (see
+    // ProbabilityDistribution#pickAlias) instead of by index
+    private final boolean alias;
 
     // TODO: add field(s) used in implementing the Iterator functionality
 
@@ -79,15 +82,38 @@ class MarkovChainIterator implements Iterator<String> {
             ProbabilityDistribution<String> startTokens,
             Map<String, ProbabilityDistribution<String>> bigramFrequencies,
             NumberGenerator ng
+    ) {
+        this(startTokens, bigramFrequencies, ng, false);
+    }
+
+    /**
+     * Constructs an iterator as above that, if {@code alias} is true, picks
+     * each token with {@link ProbabilityDistribution#pickAlias} instead of
+     * {@link ProbabilityDistribution#pick(NumberGenerator)}. The resulting walk
+     * is drawn from the same distribution, but the same {@code ng} produces a
+     * different path.
+     *
+     * @param startTokens       from the MarkovChain (assumed not null)
+     * @param bigramFrequencies from the MarkovChain (assumed not null)
+     * @param ng                the number generator to use for this walk (assumed
+     *                          not null)
+     * @param alias             whether to sample with the alias tables
+     */
+    MarkovChainIterator(
+            ProbabilityDistribution<String> startTokens,
+            Map<String, ProbabilityDistribution<String>> bigramFrequencies,
+            NumberGenerator ng,
+            boolean alias
     ) {
         this.startTokens = startTokens;
         this.bigramFrequencies = bigramFrequencies;
         this.ng = ng;
+        this.alias = alias;
         if (startTokens.getTotal() == 0) {
             hasNext = false;
         } else {
             try {
-                currToken = startTokens.pick(ng);
+                currToken = pick(startTokens);
             } catch (RuntimeException e) {
                 hasNext = false;
             }
@@ -127,7 +153,7 @@ class MarkovChainIterator implements Iterator<String> {
         }
         String nextToken;
         try {
-            nextToken = bigramFrequencies.get(currToken).pick(ng);
+            nextToken = pick(bigramFrequencies.get(currToken));
 
         } catch (RuntimeException e) {
             hasNext = false;
@@ -142,4 +168,8 @@ class MarkovChainIterator implements Iterator<String> {
 
     }
 
+    private String pick(ProbabilityDistribution<String> pd) {
+        return alias ? pd.pickAlias(ng) : pd.pick(ng);
+    }
+
 }
@@ -494,4 +494,50 @@ public class MarkovChainTest {
 
     }
 
+    /* **** ****** **** PARALLEL TRAINING TESTS **** ****** **** */
+
+    @Test
+    public void testMerge() {
+        MarkovChain mc1 = new MarkovChain();
+        mc1.addSequence(Arrays.stream("a table and a chair".split(" ")).iterator());
+        MarkovChain mc2 = new MarkovChain();
+        mc2.addSequence(Arrays.stream("a banana ! and a banana ?".split(" ")).iterator());
+        mc1.merge(mc2);
+
+        MarkovChain expected = new MarkovChain();
+        expected.addSequence(Arrays.stream("a table and a chair".split(" ")).iterator());
+        expected.addSequence(Arrays.stream("a banana ! and a banana ?".split(" ")).iterator());
+        assertEquals(expected.toString(), mc1.toString());
+        assertEquals(4, mc1.get("a").getTotal());
+        // the merged chain is not modified
+        assertEquals(1, mc2.startTokens.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> mc1.merge(null));
+    }
+
+    @Test
+    public void testTrainInParallelMatchesSequential() {
+        Random r = new Random(1200);
+        List<List<String>> data = new LinkedList<>();
+        for (int i = 0; i < 5 * MarkovChainTrainer.THRESHOLD; i++) {
+            List<String> tweet = new LinkedList<>();
+            int length = r.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                tweet.add("w" + r.nextInt(100));
+            }
+            data.add(tweet);
+        }
+        MarkovChain sequential = new MarkovChain(data);
+        MarkovChain parallel = MarkovChain.trainInParallel(data);
+        assertEquals(sequential.toString(), parallel.toString());
+        assertEquals(sequential.startTokens.getTotal(), parallel.startTokens.getTotal());
+    }
+
+    @Test
+    public void testTrainInParallelEmpty() {
+        MarkovChain mc = MarkovChain.trainInParallel(new ArrayList<>());
+        assertTrue(mc.startTokens.keySet().isEmpty());
+        assertTrue(mc.bigramFrequencies.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> MarkovChain.trainInParallel(null));
+    }
+
 }
@@ -0,0 +1,62 @@
+package org.cis1200;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A fork-join task that trains a {@link MarkovChain} on a range of the
+ * training data. Ranges larger than {@link #THRESHOLD} tweets are split in
+ * half; each half is trained into its own partial chain and the partial
+ * chains are merged with {@link MarkovChain#merge}.
+ * <p>
+ * Training only adds up counts, and addition does not depend on the order, so
+ * the merged chain is identical to one trained sequentially with
+ * {@link MarkovChain#addSequence}.
+ */
+class MarkovChainTrainer extends RecursiveTask<MarkovChain> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** ranges with at most this many tweets are trained sequentially */
+    static final int THRESHOLD = 2048;
+
+    // INVARIANT: trainingData supports fast random access
+    private final List<List<String>> trainingData;
+    private final int from;
+    private final int to;
+
+    /**
+     * @param trainingData - the tweets to train on, with fast random access
+     * @param from         - index of the first tweet of this task
+     * @param to           - index after the last tweet of this task
+     */
+    MarkovChainTrainer(List<List<String>> trainingData, int from, int to) {
+        this.trainingData = trainingData;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected MarkovChain compute() {
+        if (to - from <= THRESHOLD) {
+            MarkovChain mc = new MarkovChain();
+            for (int i = from; i < to; i++) {
+                mc.addSequence(trainingData.get(i).iterator());
+            }
+            return mc;
+        }
+        int mid = (from + to) >>> 1;
+        MarkovChainTrainer left = new MarkovChainTrainer(trainingData, from, mid);
+        MarkovChainTrainer right = new MarkovChainTrainer(trainingData, mid, to);
+        left.fork();
+        MarkovChain result = right.compute();
+        MarkovChain leftResult = left.join();
+        // merge the smaller partial chain into the larger one
+        if (leftResult.bigramFrequencies.size() > result.bigramFrequencies.size()) {
+            leftResult.merge(result);
+            return leftResult;
+        }
+        result.merge(leftResult);
+        return result;
+    }
+}
@@ -0,0 +1,48 @@
+package org.cis1200;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A trained model that can generate walks of tokens. {@link MarkovChain} is
+ * the reference implementation; other implementations store the same
+ * information differently but must produce exactly the same walk for the same
+ * {@code NumberGenerator}, so that they can be used interchangeably (for
+ * instance by {@link TwitterBot}).
+ */
+public interface MarkovModel {
+    /**
+     * Gets a walk through the model that follows the path given by the
+     * {@code NumberGenerator}. See {@link MarkovChainIterator} for the details.
+     *
+     * @param ng the path to follow (assumed nonnull)
+     * @return an {@code Iterator} that yields the tokens on that path
+     */
+    Iterator<String> getWalk(NumberGenerator ng);
+
+    /**
+     * Generates a list of numbers such that if it is installed as the number
+     * generator for {@link #getWalk}, the tokens returned in sequence will be
+     * the list of provided tokens. See {@link MarkovChain#findWalkChoices}.
+     *
+     * @param tokens an ordered list of tokens that the model should generate
+     * @return a list of integers representing the walk for those tokens
+     * @throws IllegalArgumentException if the tokens are not a walk of the
+     *                                  model
+     */
+    List<Integer> findWalkChoices(List<String> tokens);
+
+    /**
+     * Gets the walk of {@link #getWalk(NumberGenerator)}, cut short by the
+     * given limits. By default the walk cannot be steered toward its end (see
+     * {@link WalkLimits}); implementations that can tell which tokens may end
+     * a walk override this to support steering.
+     *
+     * @param ng     the path to follow (assumed nonnull)
+     * @param limits the limits of the walk (assumed nonnull)
+     * @return a walk that reports why it stopped
+     */
+    default LimitedWalk getWalk(NumberGenerator ng, WalkLimits limits) {
+        return new LimitedWalk(getWalk(ng), limits, token -> false);
+    }
+}
@@ -0,0 +1,80 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A walk through a {@link NGramMarkovChain}. Like {@link MarkovChainIterator},
+ * it draws one number from the {@code NumberGenerator} for the first token and
+ * one more for each call to {@link #next()}, and it ends at
+ * {@code END_TOKEN} or as soon as the generator provides an invalid choice.
+ * The walk tracks the packed context of the last {@code k} token IDs and looks
+ * up its row for every step.
+ */
+class NGramChainIterator implements Iterator<String> {
+
+    private final NGramMarkovChain chain;
+    private final NGramMarkovChain.Compiled compiled;
+
+    // stores the source of numbers that determine the path of ths walk
+    private final NumberGenerator ng;
+
+    // the context that includes currId
+    private long context;
+    private int currId;
+    private boolean hasNext = true;
+
+    /**
+     * Constructs an iterator that follows the path specified by the given
+     * {@code NumberGenerator}. If the chain is empty or the number generator
+     * can not provide a valid first index, the iterator is empty.
+     *
+     * @param chain the chain to walk (assumed not null)
+     * @param ng    the number generator to use for this walk (assumed not null)
+     */
+    NGramChainIterator(NGramMarkovChain chain, NumberGenerator ng) {
+        this.chain = chain;
+        this.compiled = chain.compile();
+        this.ng = ng;
+        int row = chain.row(0);
+        if (row == LongIntHashMap.MISSING) {
+            hasNext = false;
+        } else {
+            try {
+                currId = compiled.pick(row, ng.next(compiled.rowTotal(row)));
+                context = chain.push(0, currId);
+            } catch (RuntimeException e) {
+                hasNext = false;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext && currId != NGramMarkovChain.END_ID;
+    }
+
+    /**
+     * @return the next token in the walk
+     * @throws NoSuchElementException if the walk has reached
+     *                                {@code END_TOKEN} or the number generator
+     *                                provides an invalid choice
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int nextId;
+        try {
+            int row = chain.row(context);
+            nextId = compiled.pick(row, ng.next(compiled.rowTotal(row)));
+        } catch (RuntimeException e) {
+            hasNext = false;
+            throw new NoSuchElementException();
+        }
+        int temp = currId;
+        currId = nextId;
+        context = chain.push(context, nextId);
+        return chain.vocabulary.token(temp);
+    }
+}
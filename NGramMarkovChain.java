@@ -0,0 +1,308 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A Markov chain of order {@code k}: the next token is chosen based on the
+ * previous {@code k} tokens (its <i>context</i>) rather than just the previous
+ * one. {@link MarkovChain} models bigrams, which is order 1; order 2 or 3
+ * produces much more coherent text.
+ * <p>
+ * Every token is interned in a {@link Vocabulary}. A context of {@code k}
+ * token IDs is packed into a single {@code long}, {@code 63 / k} bits (at most
+ * 31) per ID, oldest first. Contexts at the start of a tweet are padded with a
+ * {@code START_TOKEN} marker (ID 0), so the first token of a tweet is simply
+ * chosen from the context of {@code k} {@code START_TOKEN}s and no separate
+ * start distribution is needed.
+ * <p>
+ * For instance, with {@code k = 2}, training on {@code "a table and a chair"}
+ * records the transitions:
+ *
+ * <pre>
+ *  [&lt;START&gt;, &lt;START&gt;] -&gt; "a"
+ *  [&lt;START&gt;, "a"]       -&gt; "table"
+ *  ["a", "table"]         -&gt; "and"
+ *  ["table", "and"]       -&gt; "a"
+ *  ["and", "a"]           -&gt; "chair"
+ *  ["a", "chair"]         -&gt; &lt;END&gt;
+ * </pre>
+ *
+ * Contexts are mapped to dense row numbers, and (row, successor) pairs to
+ * edge counts, in two {@link LongIntHashMap}s, so training allocates no
+ * objects per context or edge. Before walking, the edges are compiled into
+ * compressed-sparse-row arrays as in {@link CompactMarkovChain}, with the
+ * successors of each context sorted by ID. The compiled arrays are cached
+ * until the next call to {@link #addSequence}.
+ * <p>
+ * Packing limits the vocabulary to {@code 2^(63 / k)} tokens (about 2 million
+ * for {@code k = 3}). This class is not thread-safe.
+ */
+public class NGramMarkovChain implements MarkovModel {
+
+    /** the largest supported order */
+    static final int MAX_ORDER = 3;
+
+    /** start of sentence marker, used to pad the first contexts of a tweet */
+    static final String START_TOKEN = "<START>";
+    static final int START_ID = 0;
+    static final int END_ID = 1;
+
+    private final int order;
+    private final int bitsPerToken;
+    private final long contextMask;
+
+    // INVARIANT: START_TOKEN has ID START_ID and END_TOKEN has ID END_ID
+    final Vocabulary vocabulary;
+
+    // packed context -> row number
+    private final LongIntHashMap rows;
+    // (row << 32 | successor) -> edge number
+    private final LongIntHashMap edgeIndex;
+    // INVARIANT: for every edge e < edges, edgeRow[e], edgeSuccessor[e] and
+    // edgeCount[e] > 0 describe it
+    private int[] edgeRow = new int[16];
+    private int[] edgeSuccessor = new int[16];
+    private int[] edgeCount = new int[16];
+    private int edges = 0;
+
+    // compiled CSR form of the edges; null whenever it is out of date
+    private Compiled compiled;
+
+    /** the edges of every row, in compressed-sparse-row layout */
+    static final class Compiled {
+        final int[] rowStart;
+        final int[] successors;
+        final int[] cumulative;
+
+        Compiled(int[] rowStart, int[] successors, int[] cumulative) {
+            this.rowStart = rowStart;
+            this.successors = successors;
+            this.cumulative = cumulative;
+        }
+
+        int rowTotal(int row) {
+            int end = rowStart[row + 1];
+            return end == rowStart[row] ? 0 : cumulative[end - 1];
+        }
+
+        int pick(int row, int index) {
+            return successors[
+                    CompactMarkovChain.search(cumulative, rowStart[row], rowStart[row + 1], index)
+            ];
+        }
+    }
+
+    /**
+     * Constructs an empty chain of the given order.
+     *
+     * @param order - the number of previous tokens that the next token depends
+     *              on, between 1 and {@link #MAX_ORDER}
+     * @throws IllegalArgumentException if the order is out of range
+     */
+    public NGramMarkovChain(int order) {
+        if (order < 1 || order > MAX_ORDER) {
+            throw new IllegalArgumentException("order must be between 1 and " + MAX_ORDER);
+        }
+        this.order = order;
+        // keep the sign bit clear, since LongIntHashMap reserves Long.MIN_VALUE
+        this.bitsPerToken = Math.min(63 / order, 31);
+        this.contextMask = (1L << (bitsPerToken * order)) - 1;
+        this.vocabulary = new Vocabulary();
+        vocabulary.intern(START_TOKEN);
+        vocabulary.intern(MarkovChain.END_TOKEN);
+        this.rows = new LongIntHashMap();
+        this.edgeIndex = new LongIntHashMap();
+    }
+
+    /**
+     * Constructs a chain of the given order trained on the given data.
+     *
+     * @param order        - the order of the chain
+     * @param trainingData - the input sequences of tokens
+     * @throws IllegalArgumentException if the order is out of range
+     */
+    public NGramMarkovChain(int order, List<List<String>> trainingData) {
+        this(order);
+        for (List<String> tweet : trainingData) {
+            addSequence(tweet.iterator());
+        }
+    }
+
+    /**
+     * @return the order of the chain
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Shifts a token ID into a packed context, dropping the oldest one.
+     *
+     * @param context - a packed context
+     * @param id      - the ID of the newest token
+     * @return the packed context that follows
+     */
+    long push(long context, int id) {
+        return ((context << bitsPerToken) | id) & contextMask;
+    }
+
+    /**
+     * Adds a single tweet's training data to the chain, recording the
+     * transition from each token's context to the token, and from the final
+     * context to {@code END_TOKEN}. Does nothing if the tweet is empty.
+     *
+     * @param tweet an iterator representing one tweet of training data
+     * @throws IllegalArgumentException when the tweet Iterator is null or
+     *                                  contains null
+     * @throws IllegalStateException    when the vocabulary outgrows the
+     *                                  packed context keys
+     */
+    public void addSequence(Iterator<String> tweet) {
+        if (tweet == null) {
+            throw new IllegalArgumentException("Param is null");
+        }
+        if (!tweet.hasNext()) {
+            return;
+        }
+        // every context starts out as START_TOKENs, which have ID 0
+        long context = 0;
+        while (tweet.hasNext()) {
+            int id = vocabulary.intern(tweet.next());
+            if (id >>> bitsPerToken != 0) {
+                throw new IllegalStateException("vocabulary too large for order " + order);
+            }
+            addTransition(context, id);
+            context = push(context, id);
+        }
+        addTransition(context, END_ID);
+    }
+
+    private void addTransition(long context, int successor) {
+        compiled = null;
+        int row = rows.get(context);
+        if (row == LongIntHashMap.MISSING) {
+            row = rows.size();
+            rows.put(context, row);
+        }
+        long key = ((long) row << 32) | successor;
+        int edge = edgeIndex.get(key);
+        if (edge != LongIntHashMap.MISSING) {
+            edgeCount[edge]++;
+            return;
+        }
+        if (edges == edgeRow.length) {
+            edgeRow = Arrays.copyOf(edgeRow, edges * 2);
+            edgeSuccessor = Arrays.copyOf(edgeSuccessor, edges * 2);
+            edgeCount = Arrays.copyOf(edgeCount, edges * 2);
+        }
+        edgeRow[edges] = row;
+        edgeSuccessor[edges] = successor;
+        edgeCount[edges] = 1;
+        edgeIndex.put(key, edges);
+        edges++;
+    }
+
+    /**
+     * @return the number of distinct contexts seen in training
+     */
+    public int contexts() {
+        return rows.size();
+    }
+
+    /**
+     * @param context - a packed context
+     * @return the row number of the context, or {@link LongIntHashMap#MISSING}
+     */
+    int row(long context) {
+        return rows.get(context);
+    }
+
+    /**
+     * Returns the edges in CSR form, compiling them if training has happened
+     * since the last call.
+     */
+    Compiled compile() {
+        Compiled c = compiled;
+        if (c != null) {
+            return c;
+        }
+        int rowCount = rows.size();
+        int[] rowStart = new int[rowCount + 1];
+        for (int e = 0; e < edges; e++) {
+            rowStart[edgeRow[e] + 1]++;
+        }
+        for (int r = 0; r < rowCount; r++) {
+            rowStart[r + 1] += rowStart[r];
+        }
+        // group the edges by row, packed as (successor, count) so that
+        // sorting a row sorts it by successor ID
+        long[] packed = new long[edges];
+        int[] fill = Arrays.copyOf(rowStart, rowCount);
+        for (int e = 0; e < edges; e++) {
+            packed[fill[edgeRow[e]]++] = ((long) edgeSuccessor[e] << 32) | edgeCount[e];
+        }
+        int[] successors = new int[edges];
+        int[] cumulative = new int[edges];
+        for (int r = 0; r < rowCount; r++) {
+            Arrays.sort(packed, rowStart[r], rowStart[r + 1]);
+            int sum = 0;
+            for (int i = rowStart[r]; i < rowStart[r + 1]; i++) {
+                successors[i] = (int) (packed[i] >>> 32);
+                sum += (int) packed[i];
+                cumulative[i] = sum;
+            }
+        }
+        c = new Compiled(rowStart, successors, cumulative);
+        compiled = c;
+        return c;
+    }
+
+    /**
+     * Gets a walk through the chain that follows the path given by the
+     * {@code NumberGenerator}, drawing one number for each token and one for
+     * {@code END_TOKEN}, like {@link MarkovChainIterator}.
+     *
+     * @param ng the path to follow (assumed nonnull)
+     * @return an {@code Iterator} that yields the tokens on that path
+     */
+    @Override
+    public Iterator<String> getWalk(NumberGenerator ng) {
+        return new NGramChainIterator(this, ng);
+    }
+
+    /**
+     * Generate a list of numbers such that if it is installed as the number
+     * generator for {@link #getWalk}, the tokens returned in sequence will be
+     * the list of provided tokens. The given list is not modified.
+     *
+     * @param tokens an ordered list of tokens that the chain should generate
+     * @return a list of integers representing the walk
+     * @throws IllegalArgumentException if the tokens are null, empty or not a
+     *                                  complete walk of the chain
+     */
+    @Override
+    public List<Integer> findWalkChoices(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty or null tokens");
+        }
+        Compiled c = compile();
+        List<Integer> choices = new ArrayList<>(tokens.size() + 1);
+        long context = 0;
+        Iterator<String> it = tokens.iterator();
+        while (true) {
+            int id = it.hasNext() ? vocabulary.id(it.next()) : END_ID;
+            int row = rows.get(context);
+            int i = row == LongIntHashMap.MISSING || id == Vocabulary.MISSING
+                    ? -1
+                    : Arrays.binarySearch(c.successors, c.rowStart[row], c.rowStart[row + 1], id);
+            if (i < 0) {
+                throw new IllegalArgumentException("tokens are not a walk of the chain");
+            }
+            choices.add(i == c.rowStart[row] ? 0 : c.cumulative[i - 1]);
+            if (id == END_ID) {
+                return choices;
+            }
+            context = push(context, id);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for NGramMarkovChain */
+public class NGramMarkovChainTest {
+
+    private static final String[] TWEET_1 = { "a", "table", "and", "a", "chair" };
+    private static final String[] TWEET_2 = { "a", "banana", "!", "and", "a", "banana", "?" };
+
+    private static NGramMarkovChain illustrativeExample(int order) {
+        NGramMarkovChain chain = new NGramMarkovChain(order);
+        chain.addSequence(Arrays.stream(TWEET_1).iterator());
+        chain.addSequence(Arrays.stream(TWEET_2).iterator());
+        return chain;
+    }
+
+    private static List<String> walk(Iterator<String> it) {
+        List<String> tokens = new ArrayList<>();
+        while (it.hasNext()) {
+            tokens.add(it.next());
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testInvalidOrder() {
+        assertThrows(IllegalArgumentException.class, () -> new NGramMarkovChain(0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new NGramMarkovChain(NGramMarkovChain.MAX_ORDER + 1)
+        );
+    }
+
+    @Test
+    public void testContexts() {
+        // order 2 sees 6 distinct contexts in tweet 1, and tweet 2 adds
+        // ["a", "banana"], ["banana", "!"], ["!", "and"] and ["banana", "?"]
+        assertEquals(10, illustrativeExample(2).contexts());
+        // order 1 has one context per token plus [START]
+        assertEquals(8, illustrativeExample(1).contexts());
+    }
+
+    @Test
+    public void testOrderTwoRemembersTwoTokens() {
+        NGramMarkovChain chain = illustrativeExample(2);
+        List<String> tokens = Arrays.asList(TWEET_2);
+        List<Integer> choices = chain.findWalkChoices(tokens);
+        assertEquals(tokens.size() + 1, choices.size());
+        assertEquals(tokens, walk(chain.getWalk(new ListNumberGenerator(choices))));
+
+        // "a chair" is only a valid ending after "and"
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> chain.findWalkChoices(Arrays.asList("a", "chair"))
+        );
+    }
+
+    @Test
+    public void testRandomWalksOnlyUseTrainedTrigrams() {
+        Random r = new Random(1200);
+        List<List<String>> data = new ArrayList<>();
+        Set<List<String>> trigrams = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            List<String> tweet = new ArrayList<>();
+            tweet.add(NGramMarkovChain.START_TOKEN);
+            tweet.add(NGramMarkovChain.START_TOKEN);
+            int length = 1 + r.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                tweet.add("w" + r.nextInt(20));
+            }
+            tweet.add(MarkovChain.END_TOKEN);
+            for (int j = 0; j + 3 <= tweet.size(); j++) {
+                trigrams.add(tweet.subList(j, j + 3));
+            }
+            data.add(tweet.subList(2, tweet.size() - 1));
+        }
+        NGramMarkovChain chain = new NGramMarkovChain(2, data);
+        for (long seed = 0; seed < 100; seed++) {
+            List<String> tokens = new ArrayList<>();
+            tokens.add(NGramMarkovChain.START_TOKEN);
+            tokens.add(NGramMarkovChain.START_TOKEN);
+            tokens.addAll(walk(chain.getWalk(new RandomNumberGenerator(seed))));
+            tokens.add(MarkovChain.END_TOKEN);
+            for (int j = 0; j + 3 <= tokens.size(); j++) {
+                assertTrue(trigrams.contains(tokens.subList(j, j + 3)));
+            }
+        }
+    }
+
+    @Test
+    public void testTrainingAfterWalkRecompiles() {
+        NGramMarkovChain chain = new NGramMarkovChain(3);
+        chain.addSequence(Arrays.asList("x", "y").iterator());
+        assertEquals(
+                Arrays.asList("x", "y"),
+                walk(chain.getWalk(new ListNumberGenerator(new int[] { 0 })))
+        );
+        chain.addSequence(Arrays.asList("w").iterator());
+        assertEquals(
+                Arrays.asList("w"),
+                walk(chain.getWalk(new ListNumberGenerator(chain.findWalkChoices(
+                        Arrays.asList("w")
+                ))))
+        );
+    }
+
+    @Test
+    public void testEmptyChain() {
+        Iterator<String> walk = new NGramMarkovChain(2).getWalk(new RandomNumberGenerator());
+        assertFalse(walk.hasNext());
+        assertThrows(NoSuchElementException.class, walk::next);
+    }
+
+}
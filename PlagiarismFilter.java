@@ -0,0 +1,225 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A compact index of the tweets a model was trained on, for rejecting
+ * generated tweets that reproduce one of them word for word.
+ * <p>
+ * Every training tweet is normalized (rendered like a generated tweet, see
+ * {@link TweetRenderer}, and lower-cased) and hashed to 64 bits, and the index
+ * is the set of those hashes. It holds no text, so a tweet counts as a
+ * training tweet when its hash is in the set: with {@code n} training tweets,
+ * an original tweet is mistaken for one with probability about
+ * {@code n / 2^64}, which is negligible for any real corpus.
+ * <p>
+ * The hashes are kept sorted in a single {@code long[]}, bucketed by their
+ * top bits with a table of bucket starts, like the rows of
+ * {@link CompactMarkovChain}. There are about half as many buckets as hashes,
+ * and the hashes are uniform, so a lookup scans about two hashes of one
+ * bucket: constant time on average. The index costs about 10 bytes per
+ * distinct training tweet (an 8-byte hash plus its share of the bucket
+ * table), however long the tweets are, instead of a {@code HashSet<String>}
+ * of the whole corpus. Only the hashes are saved (see {@link #save}); the
+ * bucket table is rebuilt on loading.
+ * <p>
+ * Instances are immutable, so they can be shared between threads.
+ */
+class PlagiarismFilter {
+
+    /** "MKTW" */
+    static final int MAGIC = 0x4D4B5457;
+    /** incremented whenever the layout changes */
+    static final int VERSION = 1;
+
+    // INVARIANT: sorted, without duplicates
+    private final long[] hashes;
+    // hashes in bucket b are hashes[bucketStart[b]] to hashes[bucketStart[b + 1] - 1]
+    private final int[] bucketStart;
+    // the number of top bits that select a bucket, between 1 and 30
+    private final int bucketBits;
+
+    /**
+     * Indexes the given training data.
+     *
+     * @param trainingData - the tokens of each training tweet (assumed not
+     *                     null)
+     */
+    PlagiarismFilter(List<List<String>> trainingData) {
+        this(build(trainingData));
+    }
+
+    private static long[] build(List<List<String>> trainingData) {
+        Builder builder = new Builder();
+        for (List<String> tweet : trainingData) {
+            builder.add(tweet);
+        }
+        return builder.distinctHashes();
+    }
+
+    // hashes must be sorted, without duplicates
+    private PlagiarismFilter(long[] hashes) {
+        this.hashes = hashes;
+        int bits = 1;
+        while (bits < 30 && (1 << bits) < hashes.length / 2) {
+            bits++;
+        }
+        this.bucketBits = bits;
+        this.bucketStart = new int[(1 << bits) + 1];
+        int i = 0;
+        for (int b = 0; b < bucketStart.length; b++) {
+            while (i < hashes.length && bucket(hashes[i]) < b) {
+                i++;
+            }
+            bucketStart[b] = i;
+        }
+    }
+
+    // flipping the sign bit makes the top bits grow with the signed order of
+    // the sorted hashes
+    private int bucket(long hash) {
+        return (int) ((hash ^ Long.MIN_VALUE) >>> (64 - bucketBits));
+    }
+
+    /**
+     * @param tweet - a tweet, as rendered by {@link TwitterBot}
+     * @return true if the hash of the tweet is the hash of a training tweet,
+     *         ignoring case
+     */
+    boolean contains(String tweet) {
+        long h = hash(tweet);
+        int b = bucket(h);
+        for (int i = bucketStart[b]; i < bucketStart[b + 1]; i++) {
+            if (hashes[i] == h) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return the number of distinct training tweets in the index */
+    int size() {
+        return hashes.length;
+    }
+
+    /** @return the approximate size of the index in bytes */
+    long sizeInBytes() {
+        return 8L * hashes.length + 4L * bucketStart.length;
+    }
+
+    /**
+     * Writes the index to the given file, replacing it atomically like
+     * {@link ChainSnapshot#save}. The file holds MAGIC, VERSION and the
+     * number of hashes as big-endian {@code int}s, then the sorted hashes as
+     * big-endian {@code long}s.
+     *
+     * @param file - the file to write
+     * @throws IOException if the file cannot be written
+     */
+    void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(12 + 8L * hashes.length));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hashes.length);
+        buffer.asLongBuffer().put(hashes);
+        buffer.rewind();
+        ChainSnapshot.write(buffer, file);
+    }
+
+    /**
+     * Reads an index from the given file.
+     *
+     * @param file - a file written by {@link #save}
+     * @return the index that was saved
+     * @throws IOException if the file cannot be read or is not a valid index
+     */
+    static PlagiarismFilter load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("not a training tweet index");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("unsupported index version " + version);
+        }
+        int n = buffer.getInt();
+        if (n < 0 || buffer.remaining() != 8L * n) {
+            throw new IOException("index has the wrong length");
+        }
+        long[] hashes = new long[n];
+        buffer.asLongBuffer().get(hashes);
+        for (int i = 1; i < n; i++) {
+            if (hashes[i - 1] >= hashes[i]) {
+                throw new IOException("index hashes are not sorted");
+            }
+        }
+        return new PlagiarismFilter(hashes);
+    }
+
+    // a 64-bit hash of the normalized tweet: FNV-1a over its UTF-8 bytes,
+    // finished with a mixer so every bit depends on every byte
+    static long hash(String tweet) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : tweet.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return mix64(h);
+    }
+
+    // the 64-bit finalizer of SplittableRandom (Stafford's variant 13)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Collects the hashes of training tweets one at a time, so the index can
+     * be built while the tweets are streamed into a
+     * {@link CompactChainBuilder} (see {@code TweetParser.trainOnRawTweets}).
+     * Only the 8-byte hash of each tweet is kept. This class is not
+     * thread-safe.
+     */
+    static class Builder {
+        private long[] hashes = new long[16];
+        private int size = 0;
+
+        /**
+         * Adds a training tweet. Does nothing if it is empty.
+         *
+         * @param tweet - the tokens of the tweet (assumed not null)
+         */
+        void add(List<String> tweet) {
+            if (tweet.isEmpty()) {
+                return;
+            }
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = hash(TweetRenderer.render(tweet.iterator()));
+        }
+
+        /** @return the index of the tweets added so far */
+        PlagiarismFilter build() {
+            return new PlagiarismFilter(distinctHashes());
+        }
+
+        private long[] distinctHashes() {
+            long[] all = Arrays.copyOf(hashes, size);
+            Arrays.sort(all);
+            int distinct = 0;
+            for (int i = 0; i < all.length; i++) {
+                if (i == 0 || all[i] != all[i - 1]) {
+                    all[distinct++] = all[i];
+                }
+            }
+            return Arrays.copyOf(all, distinct);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/** Tests for PlagiarismFilter and TwitterBot.generateOriginalTweet */
+public class PlagiarismFilterTest {
+
+    private static List<List<String>> trainingData() {
+        return TweetParser.rawTweetsToTrainingData(Arrays.asList(
+                "a table and a chair", "a banana! and a banana?", "Hello, world"
+        ));
+    }
+
+    @Test
+    public void testContainsTrainingTweets() {
+        PlagiarismFilter filter = new PlagiarismFilter(trainingData());
+        assertEquals(3, filter.size());
+        assertTrue(filter.contains("a table and a chair"));
+        assertTrue(filter.contains("a banana! and a banana?"));
+        assertTrue(filter.contains("hello, WORLD"));
+        assertFalse(filter.contains("a chair"));
+        assertFalse(filter.contains("a banana! and a chair"));
+        assertFalse(filter.contains(""));
+    }
+
+    @Test
+    public void testNoFalseNegativesOrFalsePositives() {
+        Random r = new Random(2300);
+        List<List<String>> data = new ArrayList<>();
+        Set<String> rendered = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            List<String> tweet = Arrays.asList("w" + r.nextInt(1000), "w" + r.nextInt(1000), ".");
+            data.add(tweet);
+            rendered.add(TweetRenderer.render(tweet.iterator()));
+        }
+        PlagiarismFilter filter = new PlagiarismFilter(data);
+        for (String tweet : rendered) {
+            assertTrue(filter.contains(tweet));
+        }
+        // about 10 bytes per tweet
+        assertTrue(filter.sizeInBytes() < 12L * rendered.size());
+        int wrong = 0;
+        for (int i = 0; i < 20000; i++) {
+            String tweet = "x" + i + " original.";
+            if (filter.contains(tweet)) {
+                wrong++;
+            }
+        }
+        assertEquals(0, wrong);
+    }
+
+    @Test
+    public void testBuilderMatchesTrainingData() {
+        List<String> rawTweets = Arrays.asList("a table and a chair", "", "Hello, world");
+        CompactChainBuilder chain = new CompactChainBuilder();
+        PlagiarismFilter.Builder builder = new PlagiarismFilter.Builder();
+        TweetParser.trainOnRawTweets(rawTweets.iterator(), chain, builder);
+        PlagiarismFilter filter = builder.build();
+        assertEquals(2, filter.size());
+        assertTrue(filter.contains("hello, world"));
+        assertFalse(filter.contains("a chair"));
+        assertEquals(
+                new MarkovChain(TweetParser.rawTweetsToTrainingData(rawTweets)).toString(),
+                chain.build().toString()
+        );
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Path dir = Files.createTempDirectory("index");
+        Path file = dir.resolve("tweets.index");
+        try {
+            new PlagiarismFilter(trainingData()).save(file);
+            PlagiarismFilter loaded = PlagiarismFilter.load(file);
+            assertEquals(3, loaded.size());
+            assertTrue(loaded.contains("a banana! and a banana?"));
+            assertFalse(loaded.contains("a chair"));
+
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(IOException.class, () -> PlagiarismFilter.load(file));
+            // swap the first two hashes, so they are out of order
+            byte[] swapped = bytes.clone();
+            System.arraycopy(bytes, 12, swapped, 20, 8);
+            System.arraycopy(bytes, 20, swapped, 12, 8);
+            Files.write(file, swapped);
+            assertThrows(IOException.class, () -> PlagiarismFilter.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testRandomTweetsAreOriginal() {
+        TwitterBot bot = TwitterBot.rejectingCopies(trainingData());
+        // the same walks as below: a copy, then "a chair"
+        int[] walks = { 1, 3, 0, 0, 2, 0, 1, 2, 0 };
+        assertEquals(Optional.of("a chair"), bot.originalTweet(new ListNumberGenerator(walks)));
+        // every walk from "Hello" copies, so there is no original tweet
+        NumberGenerator hello = new ListNumberGenerator(new int[] { 0, 0, 0, 0 });
+        assertEquals(Optional.empty(), bot.originalTweet(hello));
+        assertThrows(IllegalStateException.class, () -> bot.requireOriginalTweet(hello));
+        // seeded tweets are checked too
+        assertEquals(0, bot.tweets(200, 7).filter(bot::isTrainingTweet).count());
+    }
+
+    @Test
+    public void testNoOriginalTweets() {
+        List<List<String>> single = TweetParser.rawTweetsToTrainingData(
+                Collections.singletonList("Hello, world")
+        );
+        // every walk copies the one training tweet
+        TwitterBot bot = TwitterBot.rejectingCopies(single);
+        assertThrows(IllegalStateException.class, bot::generateTweet);
+        assertThrows(IllegalStateException.class, () -> bot.generateRandomTweets(1));
+        assertThrows(IllegalStateException.class, () -> bot.tweet(7, 0));
+        // without the index, the bot tweets its training tweet as before
+        assertEquals("Hello, world", new TwitterBot(single).generateTweet());
+    }
+
+    @Test
+    public void testGenerateOriginalTweet() {
+        TwitterBot bot = TwitterBot.rejectingCopies(trainingData());
+        // "Hello" sorts before "a", so 1 2 0 walks "a chair", which is original
+        assertEquals(
+                Optional.of("a chair"),
+                bot.generateOriginalTweet(new ListNumberGenerator(new int[] { 1, 2, 0 }), 1)
+        );
+        // "a table and a chair" copies the training data, then "a chair"
+        int[] walks = { 1, 3, 0, 0, 2, 0, 1, 2, 0 };
+        assertTrue(bot.isTrainingTweet(bot.generateTweet(new ListNumberGenerator(walks))));
+        assertEquals(
+                Optional.of("a chair"),
+                bot.generateOriginalTweet(new ListNumberGenerator(walks), 2)
+        );
+        // "Hello, world" is the only walk from "Hello"
+        NumberGenerator hello = new ListNumberGenerator(new int[] { 0, 0, 0, 0 });
+        assertEquals(Optional.empty(), bot.generateOriginalTweet(hello, 3));
+        assertThrows(IllegalArgumentException.class, () -> bot.generateOriginalTweet(hello, 0));
+        assertFalse(new TwitterBot(new MarkovChain()).isTrainingTweet("a chair"));
+    }
+}
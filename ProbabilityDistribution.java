@@ -32,12 +32,32 @@ import java.util.Map.Entry;
  */
 class ProbabilityDistribution<T extends Comparable<T>> {
 
+    // the number of reads in a row, with no record in between, after which
+    // pick(int) and index(T) compile the distribution instead of scanning it
+    static final int COMPILE_AFTER = 8;
+
     // association between keys and number of occurrences
     // store in a TreeMap so that the entries can be accessed in sorted order
     // INVARIANT: keys are never null, values are > 0
     private final TreeMap<T, Integer> records;
     // INVARIANT: total is sum of all values stored in records
     private Integer total = 0;
+    // compiled form of records used by pick(int) and index(T); built once
+    // they have been called COMPILE_AFTER times in a row, and dropped whenever
+    // a new record is added
+    private CompiledDistribution<T> compiled;
+    // alias table used by pickAlias; built on first use and dropped whenever
+    // a new record is added
+    private AliasDistribution<T> aliased;
+    // Fenwick form of records, used by pick(int) and index(T) instead of
+    // compiled once records and reads have been seen to interleave, and kept
+    // up to date by record(T) from then on
+    private FenwickDistribution<T> fenwick;
+    // the number of calls to pick(int) or index(T) since the last record
+    private int reads;
+    // whether a record(T) has followed a read, so that compiling again on the
+    // next read would throw away a compiled form that was still in use
+    private boolean interleaved;
 
     /**
      * Constructs an empty distribution.
@@ -124,6 +144,12 @@ class ProbabilityDistribution<T extends Comparable<T>> {
                             "equal to the total " + "number of records in the PD"
             );
         }
+        if (fenwick() != null) {
+            return fenwick.pick(index);
+        }
+        if (compiled() != null) {
+            return compiled.pick(index);
+        }
         int currentIndex = 0;
         // go through the keys in order, summing their occurrences until we
         // reach the weighted key
@@ -152,6 +178,109 @@ class ProbabilityDistribution<T extends Comparable<T>> {
     public void record(T t) {
         records.put(t, records.getOrDefault(t, 0) + 1);
         total++;
+        if (fenwick != null) {
+            fenwick.record(t);
+        } else if (reads > 0) {
+            interleaved = true;
+        }
+        reads = 0;
+        compiled = null;
+        aliased = null;
+    }
+
+    /**
+     * Records {@code count} occurrences of {@code t} at once, as if it had been
+     * passed to {@link #record} that many times.
+     *
+     * @param t     - the element to record (assumed not null)
+     * @param count - the number of occurrences
+     * @throws IllegalArgumentException when count is not positive
+     */
+    void record(T t, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        records.merge(t, count, Integer::sum);
+        total += count;
+        if (fenwick != null) {
+            fenwick.record(t, count);
+        }
+        compiled = null;
+        aliased = null;
+    }
+
+    /**
+     * Adds all of the occurrences recorded in {@code other} to this
+     * distribution, as if each of them had been passed to {@link #record}.
+     * {@code other} is not modified.
+     *
+     * @param other - the distribution to merge into this one
+     * @throws IllegalArgumentException when other is null
+     */
+    public void merge(ProbabilityDistribution<T> other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Cannot merge a null distribution");
+        }
+        for (Map.Entry<T, Integer> entry : other.records.entrySet()) {
+            records.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        total += other.total;
+        fenwick = null;
+        reads = 0;
+        interleaved = false;
+        compiled = null;
+        aliased = null;
+    }
+
+    /**
+     * Removes all of the occurrences recorded in {@code other} from this
+     * distribution, undoing an earlier {@link #merge} of it. Elements whose
+     * count drops to zero are removed from the distribution entirely, so it
+     * never holds more elements than are still recorded. {@code other} is not
+     * modified.
+     *
+     * @param other - the distribution to remove from this one
+     * @throws IllegalArgumentException when other is null, or records more
+     *                                  occurrences of some element than this
+     *                                  distribution does
+     */
+    public void subtract(ProbabilityDistribution<T> other) {
+        checkSubtract(other);
+        for (Map.Entry<T, Integer> entry : other.records.entrySet()) {
+            int count = records.get(entry.getKey()) - entry.getValue();
+            if (count == 0) {
+                records.remove(entry.getKey());
+            } else {
+                records.put(entry.getKey(), count);
+            }
+        }
+        total -= other.total;
+        fenwick = null;
+        reads = 0;
+        interleaved = false;
+        compiled = null;
+        aliased = null;
+    }
+
+    /**
+     * Checks that {@link #subtract} would succeed, without changing anything.
+     *
+     * @param other - the distribution to subtract
+     * @throws IllegalArgumentException when other is null, or has recorded an
+     *                                  element more often than this
+     *                                  distribution
+     */
+    void checkSubtract(ProbabilityDistribution<T> other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Cannot subtract a null distribution");
+        }
+        for (Map.Entry<T, Integer> entry : other.records.entrySet()) {
+            if (records.getOrDefault(entry.getKey(), 0) < entry.getValue()) {
+                throw new IllegalArgumentException(
+                        "element " + entry.getKey() + " was not recorded that often"
+                );
+            }
+        }
     }
 
     /**
@@ -190,6 +319,12 @@ class ProbabilityDistribution<T extends Comparable<T>> {
      *                                  distribution
      */
     public int index(T element) {
+        if (fenwick() != null) {
+            return fenwick.index(element);
+        }
+        if (compiled() != null) {
+            return compiled.index(element);
+        }
         int currentIndex = 0;
         for (Map.Entry<T, Integer> entry : records.entrySet()) {
             T key = entry.getKey();
@@ -202,6 +337,102 @@ class ProbabilityDistribution<T extends Comparable<T>> {
         throw new IllegalArgumentException("element " + element + " not in the distribution");
     }
 
+    // notes a read, and builds the Fenwick form for it when records and reads
+    // interleave; returns null while it is not in use
+    private FenwickDistribution<T> fenwick() {
+        if (reads < COMPILE_AFTER) {
+            reads++;
+        }
+        if (fenwick == null && interleaved) {
+            fenwick = new FenwickDistribution<>(records);
+        }
+        return fenwick;
+    }
+
+    // the compiled form, once the distribution has been read often enough
+    // since the last record to pay for compiling it; null until then
+    private CompiledDistribution<T> compiled() {
+        return compiled != null || reads < COMPILE_AFTER ? compiled : compile();
+    }
+
+    /**
+     * Returns a frozen {@link CompiledDistribution} of the current records, so
+     * that {@code pick} and {@code index} are binary searches rather than walks
+     * over every entry. The compiled form is cached until the next call to
+     * {@link #record}, so repeated picks from a trained distribution only pay
+     * for it once.
+     * <p>
+     * {@link #pick(int)} and {@link #index} only compile the distribution once
+     * they have been called {@link #COMPILE_AFTER} times with no record in
+     * between; until then they scan the records as before, without
+     * allocating. A distribution that keeps recording between picks, such as
+     * one of a chain that is trained while it serves walks, would otherwise
+     * compile again after every record. Once they see a record between two
+     * reads, they switch to a {@link FenwickDistribution} instead, which
+     * {@link #record} updates in O(log n) and which answers both in
+     * O(log n); {@link #merge} and {@link #subtract} drop it, and it is built
+     * again if the interleaving goes on.
+     * <p>
+     * Either form is a second copy of the records, so a frozen chain that is
+     * read often holds every distribution twice; a distribution that is only
+     * read a few times between records holds a single copy.
+     *
+     * @return a compiled snapshot of this distribution
+     */
+    public CompiledDistribution<T> compile() {
+        CompiledDistribution<T> c = compiled;
+        if (c == null) {
+            c = new CompiledDistribution<>(records);
+            compiled = c;
+        }
+        return c;
+    }
+
+    /**
+     * Tells whether {@link #pick(int)} and {@link #index} currently use a
+     * compiled form, for testing purposes.
+     *
+     * @return true if a compiled form is cached
+     */
+    boolean isCompiled() {
+        return compiled != null;
+    }
+
+    /**
+     * Picks an element in constant time using an {@link AliasDistribution}.
+     * Each element is picked with the same probability as by
+     * {@link #pick(NumberGenerator)}, but the same numbers from the generator
+     * generally pick a <i>different</i> element, so this is only suitable for
+     * random walks that never need to be replayed with {@link #index}.
+     * <p>
+     * The alias table is built on the first call and cached until the next
+     * call to {@link #record}.
+     *
+     * @param generator - the source of numbers for the pick
+     * @return the chosen element of the ProbabilityDistribution
+     * @throws IllegalArgumentException if the distribution is empty or a
+     *                                  number received from the generator is
+     *                                  out of range
+     */
+    public T pickAlias(NumberGenerator generator) {
+        return alias().pick(generator);
+    }
+
+    /**
+     * Returns the {@link AliasDistribution} of the current records, building
+     * it if needed. The table is cached until the next call to {@link #record}.
+     *
+     * @return an alias table for this distribution
+     */
+    public AliasDistribution<T> alias() {
+        AliasDistribution<T> a = aliased;
+        if (a == null) {
+            a = new AliasDistribution<>(records);
+            aliased = a;
+        }
+        return a;
+    }
+
     /**
      * Print the probability distribution
      */
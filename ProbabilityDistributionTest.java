@@ -0,0 +1,236 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for ProbabilityDistribution and its compiled, alias and Fenwick forms */
+public class ProbabilityDistributionTest {
+
+    // { "banana":2  "chair":1  "table":1 }
+    private static ProbabilityDistribution<String> illustrativeExample() {
+        ProbabilityDistribution<String> pd = new ProbabilityDistribution<>();
+        pd.record("table");
+        pd.record("banana");
+        pd.record("chair");
+        pd.record("banana");
+        return pd;
+    }
+
+    @Test
+    public void testPickUsesWeightedIndices() {
+        ProbabilityDistribution<String> pd = illustrativeExample();
+        assertEquals("banana", pd.pick(0));
+        assertEquals("banana", pd.pick(1));
+        assertEquals("chair", pd.pick(2));
+        assertEquals("table", pd.pick(3));
+        assertThrows(IllegalArgumentException.class, () -> pd.pick(4));
+        assertThrows(IllegalArgumentException.class, () -> pd.pick(-1));
+    }
+
+    @Test
+    public void testCompiledMatchesDistribution() {
+        ProbabilityDistribution<String> pd = illustrativeExample();
+        CompiledDistribution<String> compiled = pd.compile();
+        assertEquals(pd.getTotal(), compiled.getTotal());
+        assertEquals(pd.toString(), compiled.toString());
+        for (int i = 0; i < pd.getTotal(); i++) {
+            assertEquals(pd.pick(i), compiled.pick(i));
+        }
+        for (String key : pd.keySet()) {
+            assertEquals(pd.index(key), compiled.index(key));
+            assertEquals(pd.count(key), compiled.count(key));
+        }
+        assertThrows(IllegalArgumentException.class, () -> compiled.index("lamp"));
+    }
+
+    @Test
+    public void testRecordAfterPickRecompiles() {
+        ProbabilityDistribution<String> pd = illustrativeExample();
+        assertEquals("table", pd.pick(3));
+        pd.record("apple");
+        assertEquals("apple", pd.pick(0));
+        assertEquals("table", pd.pick(4));
+        assertEquals(3, pd.index("chair"));
+    }
+
+    @Test
+    public void testCompilesOnlyAfterRepeatedReads() {
+        ProbabilityDistribution<String> pd = illustrativeExample();
+        for (int i = 1; i < ProbabilityDistribution.COMPILE_AFTER; i++) {
+            assertEquals("chair", pd.pick(2));
+            assertFalse(pd.isCompiled());
+        }
+        assertEquals(2, pd.index("chair"));
+        assertTrue(pd.isCompiled());
+        assertEquals("table", pd.pick(3));
+        pd.record("apple");
+        assertFalse(pd.isCompiled());
+        // a record between reads switches to the Fenwick form, not a new
+        // compiled one
+        assertEquals("apple", pd.pick(0));
+        assertFalse(pd.isCompiled());
+        assertThrows(IllegalArgumentException.class, () -> pd.index("lamp"));
+    }
+
+    @Test
+    public void testAliasPreservesProbabilities() {
+        ProbabilityDistribution<String> pd = illustrativeExample();
+        pd.record("apple");
+        pd.record("table");
+        pd.record("table");
+        // every (column, position) pair is equally likely, so counting the
+        // picks over all of them gives each element's weight times the number
+        // of columns
+        int columns = pd.keySet().size();
+        Map<String, Integer> picks = new TreeMap<>();
+        for (int c = 0; c < columns; c++) {
+            for (int p = 0; p < pd.getTotal(); p++) {
+                String picked = pd.pickAlias(new ListNumberGenerator(new int[] { c, p }));
+                picks.put(picked, picks.getOrDefault(picked, 0) + 1);
+            }
+        }
+        for (String key : pd.keySet()) {
+            assertEquals(pd.count(key) * columns, picks.get(key).intValue());
+        }
+    }
+
+    @Test
+    public void testAliasEmptyDistribution() {
+        ProbabilityDistribution<String> pd = new ProbabilityDistribution<>();
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> pd.pickAlias(new ListNumberGenerator(new int[] { 0 }))
+        );
+    }
+
+    @Test
+    public void testAliasWalkOnlyFollowsRecordedBigrams() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        mc.addSequence(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?").iterator());
+        Iterator<String> walk = mc.getAliasWalk(new RandomNumberGenerator(1200));
+        String prev = walk.next();
+        assertEquals("a", prev);
+        while (walk.hasNext()) {
+            String token = walk.next();
+            assertTrue(mc.get(prev).keySet().contains(token));
+            prev = token;
+        }
+    }
+
+    // checks fd against the given counts, picking by a scan over them
+    private static void assertAgrees(TreeMap<String, Integer> expected, FenwickDistribution<String> fd) {
+        int index = 0;
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(index, fd.index(entry.getKey()));
+            assertEquals(entry.getValue().intValue(), fd.count(entry.getKey()));
+            for (int i = 0; i < entry.getValue(); i++) {
+                assertEquals(entry.getKey(), fd.pick(index++));
+            }
+        }
+        assertEquals(index, fd.getTotal());
+        assertEquals(expected.keySet(), fd.keySet());
+    }
+
+    @Test
+    public void testFenwickAgreesWhileRecording() {
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        FenwickDistribution<String> fd = new FenwickDistribution<>();
+        Random r = new Random(1200);
+        for (int step = 0; step < 2000; step++) {
+            String token = "t" + r.nextInt(40);
+            expected.merge(token, 1, Integer::sum);
+            fd.record(token);
+            if (step % 100 == 0) {
+                assertAgrees(expected, fd);
+            }
+        }
+        assertAgrees(expected, fd);
+        ProbabilityDistribution<String> pd = new ProbabilityDistribution<>();
+        expected.forEach(pd::record);
+        assertEquals(pd.toString(), fd.toString());
+    }
+
+    @Test
+    public void testFenwickNewElementsInEveryOrder() {
+        List<String> ascending = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ascending.add(String.format("t%04d", i));
+        }
+        List<String> descending = new ArrayList<>(ascending);
+        Collections.reverse(descending);
+        List<String> shuffled = new ArrayList<>(ascending);
+        Collections.shuffle(shuffled, new Random(1200));
+        for (List<String> order : List.of(ascending, descending, shuffled)) {
+            TreeMap<String, Integer> expected = new TreeMap<>();
+            FenwickDistribution<String> fd = new FenwickDistribution<>();
+            for (int i = 0; i < order.size(); i++) {
+                // every third element is recorded twice, so counts differ
+                int count = i % 3 == 0 ? 2 : 1;
+                expected.put(order.get(i), count);
+                fd.record(order.get(i), count);
+                if (i % 97 == 0) {
+                    assertAgrees(expected, fd);
+                }
+            }
+            assertAgrees(expected, fd);
+        }
+    }
+
+    @Test
+    public void testFenwickFromRecords() {
+        TreeMap<String, Integer> expected = new TreeMap<>(illustrativeExample().getRecords());
+        FenwickDistribution<String> fd = new FenwickDistribution<>(expected);
+        assertAgrees(expected, fd);
+        fd.record("apple");
+        fd.record("lamp");
+        fd.record("chair");
+        expected.put("apple", 1);
+        expected.put("lamp", 1);
+        expected.put("chair", 2);
+        assertAgrees(expected, fd);
+        assertAgrees(new TreeMap<>(), new FenwickDistribution<>(new TreeMap<String, Integer>()));
+    }
+
+    @Test
+    public void testInterleavedRecordsAndPicks() {
+        ProbabilityDistribution<String> pd = new ProbabilityDistribution<>();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        Random r = new Random(1200);
+        for (int step = 0; step < 500; step++) {
+            String token = "t" + r.nextInt(60);
+            pd.record(token);
+            expected.merge(token, 1, Integer::sum);
+            int index = r.nextInt(pd.getTotal());
+            int before = 0;
+            for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+                if (index < before + entry.getValue()) {
+                    assertEquals(entry.getKey(), pd.pick(index));
+                    break;
+                }
+                before += entry.getValue();
+            }
+            assertEquals(expected.headMap(token).values().stream().mapToInt(Integer::intValue).sum(),
+                    pd.index(token));
+        }
+        // merging drops the Fenwick form, and picks still agree afterwards
+        pd.merge(illustrativeExample());
+        illustrativeExample().getRecords().forEach((k, v) -> expected.merge(k, v, Integer::sum));
+        assertEquals(expected.firstKey(), pd.pick(0));
+        assertEquals(expected.lastKey(), pd.pick(pd.getTotal() - 1));
+    }
+
+    @Test
+    public void testFenwickInvalid() {
+        FenwickDistribution<String> fd = new FenwickDistribution<>();
+        assertThrows(IllegalArgumentException.class, () -> fd.pick(0));
+        assertThrows(IllegalArgumentException.class, () -> fd.record(null));
+        fd.record("a");
+        assertThrows(IllegalArgumentException.class, () -> fd.pick(1));
+        assertThrows(IllegalArgumentException.class, () -> fd.index("b"));
+    }
+
+}
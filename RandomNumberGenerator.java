@@ -6,7 +6,7 @@ import java.util.Random;
  * Produces random numbers using Java's Random class. This class is implemented
  * for you.
  */
-public class RandomNumberGenerator implements NumberGenerator {
+public class RandomNumberGenerator implements BulkNumberGenerator {
 
     private final Random r;
 
@@ -37,4 +37,12 @@ public class RandomNumberGenerator implements NumberGenerator {
         return r.nextInt(bound);
     }
 
+    /**
+     * @return the next 32 random bits from the Random number generator
+     */
+    @Override
+    public int nextBits() {
+        return r.nextInt();
+    }
+
 }
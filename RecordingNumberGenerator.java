@@ -0,0 +1,91 @@
+package org.cis1200;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A {@link NumberGenerator} that passes every call on to another generator
+ * and records the {@code (bound, value)} pair of each, so that the walk it
+ * drove can be replayed exactly with a {@link ReplayNumberGenerator}.
+ * <p>
+ * Pairs are appended to a byte buffer as two variable-length integers
+ * (zig-zag encoded, 7 bits per byte), so a typical walk step takes two to
+ * four bytes, and recording costs a few shifts and stores per number. The
+ * buffer is reused across {@link #reset} calls, so recording a tweet does not
+ * allocate once the buffer has grown to fit.
+ * <p>
+ * To keep a log of every tweet, record each one with the same generator and
+ * after each tweet call {@link #writeTo} and {@link #reset}; the log can then
+ * be read back one tweet at a time with
+ * {@link ReplayNumberGenerator#readFrom}.
+ */
+public class RecordingNumberGenerator implements NumberGenerator {
+
+    private final NumberGenerator ng;
+
+    private byte[] buffer = new byte[64];
+    private int length = 0;
+    private int choices = 0;
+
+    /**
+     * @param ng - the generator whose numbers to record (assumed not null)
+     */
+    public RecordingNumberGenerator(NumberGenerator ng) {
+        this.ng = ng;
+    }
+
+    /**
+     * Gets the next number from the wrapped generator and records it.
+     *
+     * @param bound - the bound passed to the wrapped generator
+     * @return the number returned by the wrapped generator
+     */
+    @Override
+    public int next(int bound) {
+        int value = ng.next(bound);
+        if (buffer.length - length < 2 * VarInts.MAX_BYTES) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        length = VarInts.write(buffer, length, bound);
+        length = VarInts.write(buffer, length, value);
+        choices++;
+        return value;
+    }
+
+    /**
+     * @return the number of choices recorded since the last reset
+     */
+    public int size() {
+        return choices;
+    }
+
+    /**
+     * @return the recorded choices, in the format read by
+     *         {@link ReplayNumberGenerator#ReplayNumberGenerator(byte[])}
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Writes the recorded choices to a stream as one record: their length in
+     * bytes, as a variable-length integer, followed by the choices.
+     *
+     * @param out - the stream to write to (assumed not null)
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        byte[] header = new byte[VarInts.MAX_BYTES];
+        out.write(header, 0, VarInts.write(header, 0, length));
+        out.write(buffer, 0, length);
+    }
+
+    /**
+     * Forgets all recorded choices, keeping the buffer for the next walk.
+     */
+    public void reset() {
+        length = 0;
+        choices = 0;
+    }
+}
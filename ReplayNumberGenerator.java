@@ -0,0 +1,104 @@
+package org.cis1200;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link NumberGenerator} that replays the numbers recorded by a
+ * {@link RecordingNumberGenerator}, like a {@link ListNumberGenerator} reading
+ * from the recording. Walking the same model with it regenerates the recorded
+ * walk exactly.
+ * <p>
+ * Each call checks that it is asked for the same bound as the recorded call
+ * was; a different bound means that the model is not the one that was
+ * recorded, and the replay fails rather than silently producing another walk.
+ */
+public class ReplayNumberGenerator implements NumberGenerator {
+
+    private final byte[] choices;
+    // a one-element array so that VarInts.read can advance it
+    private final int[] position = { 0 };
+
+    /**
+     * @param choices - the bytes returned by
+     *                {@link RecordingNumberGenerator#toByteArray()}
+     * @throws IllegalArgumentException if choices is null
+     */
+    public ReplayNumberGenerator(byte[] choices) {
+        if (choices == null) {
+            throw new IllegalArgumentException("choices cannot be null");
+        }
+        this.choices = choices.clone();
+    }
+
+    /**
+     * Reads the next record written by {@link RecordingNumberGenerator#writeTo}
+     * from a log.
+     *
+     * @param in - the stream of records (assumed not null)
+     * @return a generator that replays the record, or null at the end of the
+     *         stream
+     * @throws IOException if the stream cannot be read or ends inside a record
+     */
+    public static ReplayNumberGenerator readFrom(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            return null;
+        }
+        byte[] header = new byte[VarInts.MAX_BYTES];
+        int headerLength = 0;
+        header[headerLength++] = (byte) first;
+        while (header[headerLength - 1] < 0 && headerLength < VarInts.MAX_BYTES) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("truncated choice log");
+            }
+            header[headerLength++] = (byte) b;
+        }
+        int length;
+        try {
+            length = VarInts.read(header, new int[] { 0 }, headerLength);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("corrupt choice log", e);
+        }
+        if (length < 0) {
+            throw new IOException("corrupt choice log");
+        }
+        byte[] choices = in.readNBytes(length);
+        if (choices.length < length) {
+            throw new EOFException("truncated choice log");
+        }
+        return new ReplayNumberGenerator(choices);
+    }
+
+    /**
+     * @return true if there are recorded choices left to replay
+     */
+    public boolean hasNext() {
+        return position[0] < choices.length;
+    }
+
+    /**
+     * @param bound - the bound, which must be the recorded one
+     * @return the recorded number
+     * @throws NoSuchElementException if every recorded number has been
+     *                                replayed
+     * @throws IllegalStateException  if bound is not the recorded bound
+     */
+    @Override
+    public int next(int bound) {
+        if (!hasNext()) {
+            throw new NoSuchElementException("no more recorded choices");
+        }
+        int recordedBound = VarInts.read(choices, position, choices.length);
+        int value = VarInts.read(choices, position, choices.length);
+        if (recordedBound != bound) {
+            throw new IllegalStateException(
+                    "recorded bound " + recordedBound + " but was asked for " + bound
+            );
+        }
+        return value;
+    }
+}
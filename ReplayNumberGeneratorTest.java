@@ -0,0 +1,123 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/** Tests for RecordingNumberGenerator, ReplayNumberGenerator and VarInts */
+public class ReplayNumberGeneratorTest {
+
+    private static TwitterBot bot() {
+        return new TwitterBot(CompactMarkovChainTest.randomChain(2000, 300, 40));
+    }
+
+    @Test
+    public void testReplayRegeneratesTweet() {
+        TwitterBot bot = bot();
+        RecordingNumberGenerator recorder = new RecordingNumberGenerator(
+                new RandomNumberGenerator(2000)
+        );
+        for (int i = 0; i < 100; i++) {
+            String tweet = bot.generateTweet(recorder);
+            ReplayNumberGenerator replay = new ReplayNumberGenerator(recorder.toByteArray());
+            assertEquals(tweet, bot.generateTweet(replay));
+            assertFalse(replay.hasNext());
+            recorder.reset();
+        }
+    }
+
+    @Test
+    public void testLogOfManyTweets() throws IOException {
+        TwitterBot bot = bot();
+        RecordingNumberGenerator recorder = new RecordingNumberGenerator(
+                StreamNumberGenerator.threadLocal()
+        );
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        List<String> tweets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tweets.add(bot.generateTweet(recorder));
+            recorder.writeTo(log);
+            recorder.reset();
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(log.toByteArray());
+        for (String tweet : tweets) {
+            assertEquals(tweet, bot.generateTweet(ReplayNumberGenerator.readFrom(in)));
+        }
+        assertNull(ReplayNumberGenerator.readFrom(in));
+
+        // cut the last record short
+        byte[] truncated = Arrays.copyOf(log.toByteArray(), log.size() - 1);
+        ByteArrayInputStream bad = new ByteArrayInputStream(truncated);
+        for (int i = 0; i < tweets.size() - 1; i++) {
+            assertNotNull(ReplayNumberGenerator.readFrom(bad));
+        }
+        assertThrows(IOException.class, () -> ReplayNumberGenerator.readFrom(bad));
+    }
+
+    @Test
+    public void testReplayLoggedProductionTweets() throws IOException {
+        TwitterBot bot = bot();
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        bot.logChoicesTo(log);
+        List<String> tweets = bot.generateRandomTweets(50);
+        List<String> limited = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            limited.add(bot.originalTweet(
+                    StreamNumberGenerator.threadLocal(), TwitterBotServer.TWEET_LIMITS
+            ).get());
+        }
+        bot.logChoicesTo(null);
+        bot.generateTweet();
+
+        ByteArrayInputStream in = new ByteArrayInputStream(log.toByteArray());
+        for (String tweet : tweets) {
+            assertEquals(tweet, bot.originalTweet(ReplayNumberGenerator.readFrom(in)).get());
+        }
+        for (String tweet : limited) {
+            ReplayNumberGenerator replay = ReplayNumberGenerator.readFrom(in);
+            assertEquals(tweet, bot.originalTweet(replay, TwitterBotServer.TWEET_LIMITS).get());
+            assertFalse(replay.hasNext());
+        }
+        // nothing was logged once logging stopped
+        assertNull(ReplayNumberGenerator.readFrom(in));
+    }
+
+    @Test
+    public void testReplayChecksBounds() {
+        RecordingNumberGenerator recorder = new RecordingNumberGenerator(
+                new ListNumberGenerator(new int[] { 3, 1 })
+        );
+        assertEquals(3, recorder.next(10));
+        assertEquals(1, recorder.next(2));
+        assertEquals(2, recorder.size());
+        ReplayNumberGenerator replay = new ReplayNumberGenerator(recorder.toByteArray());
+        assertEquals(3, replay.next(10));
+        assertThrows(IllegalStateException.class, () -> replay.next(3));
+        assertThrows(NoSuchElementException.class, () -> replay.next(2));
+    }
+
+    @Test
+    public void testVarInts() {
+        int[] numbers = { 0, 1, -1, 63, -64, 64, 300, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        byte[] buffer = new byte[numbers.length * VarInts.MAX_BYTES];
+        int length = 0;
+        for (int n : numbers) {
+            length = VarInts.write(buffer, length, n);
+        }
+        // the first five take one byte each
+        assertEquals(5 + 2 + 2 + 5 + 5, length);
+        int[] position = { 0 };
+        for (int n : numbers) {
+            assertEquals(n, VarInts.read(buffer, position, length));
+        }
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> VarInts.read(new byte[] { (byte) 0x80 }, new int[] { 0 }, 1)
+        );
+    }
+}
@@ -0,0 +1,155 @@
+package org.cis1200;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * Scores token sequences by how likely a trained chain is to generate them.
+ * <p>
+ * The probability of a sequence is the probability that a walk of the chain
+ * (see {@link MarkovChain#getWalk}) produces exactly those tokens and then
+ * ends: the probability of its first token among the start tokens, times the
+ * probability of each bigram, including the last step to {@code END_TOKEN}.
+ * For the illustrative example (see {@link MarkovChain}), the sequence
+ * {@code "a", "chair"} has probability {@code 1 * 1/4 * 1 = 1/4}.
+ * <p>
+ * Probabilities are reported as natural logarithms, since the probability
+ * of a long sequence quickly underflows a {@code double}. A sequence that
+ * the chain can never produce has log-probability
+ * {@code Double.NEGATIVE_INFINITY}.
+ * <p>
+ * The log-probability of every start token and every bigram of a
+ * {@link CompactMarkovChain} is computed once, up front, so scoring a
+ * sequence is a single pass of table lookups and additions. A scorer is
+ * immutable once built, so it can be shared between threads; the
+ * {@code All} methods use this to score a whole corpus in parallel.
+ */
+public class SequenceScorer {
+
+    private final Vocabulary vocabulary;
+    private final int endId;
+    // log-probability of each start token, by ID
+    private final double[] startLogProb;
+    // edge number of each bigram, keyed by (from << 32 | to)
+    private final LongIntHashMap edges;
+    private final double[] edgeLogProb;
+
+    /**
+     * Precomputes the log-probabilities of every step of the given chain.
+     *
+     * @param chain - the chain to score sequences with (assumed not null)
+     */
+    public SequenceScorer(CompactMarkovChain chain) {
+        this.vocabulary = chain.vocabulary;
+        this.endId = chain.endId;
+        this.startLogProb = new double[vocabulary.size()];
+        Arrays.fill(startLogProb, Double.NEGATIVE_INFINITY);
+        double startTotal = chain.startTotal();
+        for (int i = 0; i < chain.startIds.length; i++) {
+            int count = chain.startCumulative[i] - (i == 0 ? 0 : chain.startCumulative[i - 1]);
+            startLogProb[chain.startIds[i]] = Math.log(count / startTotal);
+        }
+        this.edges = new LongIntHashMap(chain.successors.length);
+        this.edgeLogProb = new double[chain.successors.length];
+        for (int id = 0; id < vocabulary.size(); id++) {
+            int from = chain.rowStart[id];
+            double rowTotal = chain.rowTotal(id);
+            for (int i = from; i < chain.rowStart[id + 1]; i++) {
+                int count = chain.cumulative[i] - (i == from ? 0 : chain.cumulative[i - 1]);
+                edges.put(((long) id << 32) | chain.successors[i], i);
+                edgeLogProb[i] = Math.log(count / rowTotal);
+            }
+        }
+    }
+
+    /**
+     * Computes the natural logarithm of the probability that a walk of the
+     * chain produces exactly the given tokens.
+     *
+     * @param tokens - the sequence to score, without {@code END_TOKEN}
+     * @return its log-probability, or {@code Double.NEGATIVE_INFINITY} if the
+     *         chain can never produce it
+     * @throws IllegalArgumentException when {@code tokens} is null or empty
+     */
+    public double logProbability(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty or null tokens");
+        }
+        double logProb = 0;
+        int curr = Vocabulary.MISSING;
+        for (String token : tokens) {
+            int next = vocabulary.id(token);
+            if (next == Vocabulary.MISSING) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            logProb += curr == Vocabulary.MISSING ? startLogProb[next] : edgeLogProb(curr, next);
+            curr = next;
+        }
+        return logProb + edgeLogProb(curr, endId);
+    }
+
+    private double edgeLogProb(int from, int to) {
+        int edge = to == Vocabulary.MISSING ? LongIntHashMap.MISSING
+                : edges.get(((long) from << 32) | to);
+        return edge == LongIntHashMap.MISSING ? Double.NEGATIVE_INFINITY : edgeLogProb[edge];
+    }
+
+    /**
+     * Computes the perplexity of the chain on the given tokens: the inverse of
+     * the geometric mean of the probabilities of each step of the walk,
+     * including the final step to {@code END_TOKEN}. It is 1 when the chain
+     * can only produce this sequence, grows as the sequence gets less likely,
+     * and does not depend on its length the way the probability does.
+     *
+     * @param tokens - the sequence to score, without {@code END_TOKEN}
+     * @return its perplexity, or {@code Double.POSITIVE_INFINITY} if the chain
+     *         can never produce it
+     * @throws IllegalArgumentException when {@code tokens} is null or empty
+     */
+    public double perplexity(List<String> tokens) {
+        return perplexity(logProbability(tokens), tokens.size());
+    }
+
+    private static double perplexity(double logProb, int tokens) {
+        return Math.exp(-logProb / (tokens + 1));
+    }
+
+    /**
+     * Computes {@link #logProbability} of every sequence of a corpus, in
+     * parallel on the common fork-join pool.
+     *
+     * @param corpus - the sequences to score (assumed not null)
+     * @return the log-probability of each sequence, in the order of the corpus
+     * @throws IllegalArgumentException if any sequence is null or empty
+     */
+    public double[] logProbabilityAll(List<? extends List<String>> corpus) {
+        List<? extends List<String>> sequences = randomAccess(corpus);
+        double[] scores = new double[sequences.size()];
+        IntStream.range(0, scores.length).parallel()
+                .forEach(i -> scores[i] = logProbability(sequences.get(i)));
+        return scores;
+    }
+
+    /**
+     * Computes {@link #perplexity} of every sequence of a corpus, in parallel
+     * on the common fork-join pool.
+     *
+     * @param corpus - the sequences to score (assumed not null)
+     * @return the perplexity of each sequence, in the order of the corpus
+     * @throws IllegalArgumentException if any sequence is null or empty
+     */
+    public double[] perplexityAll(List<? extends List<String>> corpus) {
+        List<? extends List<String>> sequences = randomAccess(corpus);
+        double[] scores = new double[sequences.size()];
+        IntStream.range(0, scores.length).parallel()
+                .forEach(i -> scores[i] = perplexity(sequences.get(i)));
+        return scores;
+    }
+
+    private static List<? extends List<String>> randomAccess(List<? extends List<String>> corpus) {
+        return corpus instanceof RandomAccess ? corpus : new ArrayList<>(corpus);
+    }
+}
@@ -0,0 +1,80 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for SequenceScorer */
+public class SequenceScorerTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static SequenceScorer illustrativeExample() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        mc.addSequence(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?").iterator());
+        return new SequenceScorer(mc.compact());
+    }
+
+    @Test
+    public void testLogProbability() {
+        SequenceScorer scorer = illustrativeExample();
+        // "a" always starts, then "chair" 1/4 of the time, then always ends
+        assertEquals(Math.log(0.25), scorer.logProbability(Arrays.asList("a", "chair")), DELTA);
+        // 1 * 2/4 * 1/2 * 1 = 1/4
+        assertEquals(
+                Math.log(0.25),
+                scorer.logProbability(Arrays.asList("a", "banana", "?")),
+                DELTA
+        );
+        assertEquals(Math.pow(4, 1.0 / 3), scorer.perplexity(Arrays.asList("a", "chair")), DELTA);
+    }
+
+    @Test
+    public void testImpossibleSequences() {
+        SequenceScorer scorer = illustrativeExample();
+        assertEquals(
+                Double.NEGATIVE_INFINITY,
+                scorer.logProbability(Arrays.asList("table", "and"))
+        );
+        assertEquals(Double.NEGATIVE_INFINITY, scorer.logProbability(Arrays.asList("a")));
+        assertEquals(Double.NEGATIVE_INFINITY, scorer.logProbability(Arrays.asList("a", "lamp")));
+        assertEquals(Double.POSITIVE_INFINITY, scorer.perplexity(Arrays.asList("lamp")));
+        assertThrows(IllegalArgumentException.class, () -> scorer.logProbability(null));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> scorer.logProbability(new ArrayList<>())
+        );
+    }
+
+    @Test
+    public void testScoresMatchWalkProbabilities() {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(1400, 300, 40);
+        SequenceScorer scorer = new SequenceScorer(mc.compact());
+        List<List<String>> corpus = new ArrayList<>();
+        for (long seed = 0; seed < 500; seed++) {
+            List<String> walk = new ArrayList<>();
+            Iterator<String> it = mc.getWalk(new RandomNumberGenerator(seed));
+            while (it.hasNext()) {
+                walk.add(it.next());
+            }
+            corpus.add(walk);
+        }
+        double[] logProbs = scorer.logProbabilityAll(corpus);
+        double[] perplexities = scorer.perplexityAll(new LinkedList<>(corpus));
+        for (int i = 0; i < corpus.size(); i++) {
+            List<String> walk = corpus.get(i);
+            // multiply out the probabilities of each step directly
+            double p = mc.startTokens.count(walk.get(0)) / (double) mc.startTokens.getTotal();
+            for (int j = 0; j < walk.size(); j++) {
+                String next = j + 1 < walk.size() ? walk.get(j + 1) : MarkovChain.END_TOKEN;
+                ProbabilityDistribution<String> pd = mc.bigramFrequencies.get(walk.get(j));
+                p *= pd.count(next) / (double) pd.getTotal();
+            }
+            assertEquals(Math.log(p), logProbs[i], 1e-6);
+            assertEquals(scorer.perplexity(walk), perplexities[i], DELTA);
+        }
+    }
+}
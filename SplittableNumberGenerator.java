@@ -0,0 +1,65 @@
+package org.cis1200;
+
+import java.util.SplittableRandom;
+
+/**
+ * Produces random numbers using Java's {@link SplittableRandom}. Unlike a
+ * {@link RandomNumberGenerator}, a generator can be {@link #split} into a new,
+ * statistically independent one, so parallel tasks can each get their own
+ * generator without sharing any state.
+ * <p>
+ * Bounded numbers come from {@link BulkNumberGenerator#bounded} (Lemire's
+ * method) applied to {@code nextInt()}, not from
+ * {@code SplittableRandom.nextInt(bound)}.
+ * <p>
+ * A single instance is not thread-safe; split it for each thread instead.
+ */
+public class SplittableNumberGenerator implements BulkNumberGenerator {
+
+    private final SplittableRandom r;
+
+    /**
+     * Generates pseudo-random numbers.
+     */
+    public SplittableNumberGenerator() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Generates numbers randomly based off of a specified seed.
+     *
+     * @param seed - a seed to pass to the SplittableRandom.
+     */
+    public SplittableNumberGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableNumberGenerator(SplittableRandom r) {
+        this.r = r;
+    }
+
+    /**
+     * @return a new generator whose numbers are independent of this one's;
+     *         this generator's own numbers change too
+     */
+    public SplittableNumberGenerator split() {
+        return new SplittableNumberGenerator(r.split());
+    }
+
+    /**
+     * Grabs another integer that is between 0 (inclusive) and bound
+     * (exclusive), with {@link BulkNumberGenerator#bounded}.
+     *
+     * @param bound - the max value that can be returned by this call to next
+     * @return a random number between 0 (inclusive) and bound (exclusive).
+     */
+    @Override
+    public int next(int bound) {
+        return BulkNumberGenerator.bounded(this, r.nextInt(), bound);
+    }
+
+    @Override
+    public int nextBits() {
+        return r.nextInt();
+    }
+}
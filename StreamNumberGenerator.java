@@ -0,0 +1,100 @@
+package org.cis1200;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Produces random numbers from any {@link RandomGenerator}, and provides the
+ * generators to use when tweets are generated on many threads at once.
+ * <ul>
+ * <li>{@link #forStream} is counter-based: tweet number {@code i} of a run
+ * with a given seed always walks with its own stream {@code i}, no matter
+ * which thread generates it or in which order. A whole parallel run is
+ * therefore exactly reproducible from a single seed, and any single tweet of
+ * it can be regenerated on its own.
+ * <li>{@link #threadLocal} draws from the random generator of the current
+ * thread, so threads never contend for a shared seed, as they do with a
+ * shared {@link RandomNumberGenerator}.
+ * </ul>
+ * Streams are instances of the {@code L64X128MixRandom} algorithm, a fast
+ * generator with 128 bits of state. The algorithm itself is specified, but
+ * how {@link RandomGeneratorFactory#create(long)} expands a seed into that
+ * state is not, so a seed is only guaranteed to give the same numbers on the
+ * same JDK release. {@code StreamNumberGeneratorTest} pins the numbers of one
+ * stream, so a JDK upgrade that changes them is noticed.
+ * <p>
+ * Bounded numbers come from {@link BulkNumberGenerator#bounded} (Lemire's
+ * method) applied to {@code nextInt()}, not from
+ * {@code RandomGenerator.nextInt(bound)}.
+ */
+public class StreamNumberGenerator implements BulkNumberGenerator {
+
+    /** the algorithm of the streams returned by {@link #forStream} */
+    static final String ALGORITHM = "L64X128MixRandom";
+
+    private static final RandomGeneratorFactory<RandomGenerator> STREAMS =
+            RandomGeneratorFactory.of(ALGORITHM);
+
+    private static final NumberGenerator THREAD_LOCAL =
+            bound -> ThreadLocalRandom.current().nextInt(bound);
+
+    private final RandomGenerator r;
+
+    /**
+     * @param r - the source of the random numbers (assumed not null)
+     */
+    public StreamNumberGenerator(RandomGenerator r) {
+        this.r = r;
+    }
+
+    /**
+     * Returns the generator for stream number {@code stream} of the given
+     * seed. The same seed and stream always give the same numbers, and
+     * different streams of a seed are statistically independent.
+     *
+     * @param seed   - the seed of the whole run
+     * @param stream - the number of the stream, such as the index of a tweet
+     * @return a new generator for that stream
+     */
+    public static StreamNumberGenerator forStream(long seed, long stream) {
+        // the streams of one seed get distinct seeds; the factory then mixes
+        // each into a full state
+        return new StreamNumberGenerator(STREAMS.create(mix64(seed) ^ stream));
+    }
+
+    /**
+     * Returns a generator that draws each number from
+     * {@link ThreadLocalRandom#current()}. It can be shared between threads,
+     * and is not reproducible.
+     *
+     * @return the thread-local generator
+     */
+    public static NumberGenerator threadLocal() {
+        return THREAD_LOCAL;
+    }
+
+    // the 64-bit finalizer of SplittableRandom (Stafford's variant 13)
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Grabs another integer that is between 0 (inclusive) and bound
+     * (exclusive), with {@link BulkNumberGenerator#bounded}.
+     *
+     * @param bound - the max value that can be returned by this call to next
+     * @return a random number between 0 (inclusive) and bound (exclusive).
+     */
+    @Override
+    public int next(int bound) {
+        return BulkNumberGenerator.bounded(this, r.nextInt(), bound);
+    }
+
+    @Override
+    public int nextBits() {
+        return r.nextInt();
+    }
+}
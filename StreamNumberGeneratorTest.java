@@ -0,0 +1,73 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Tests for StreamNumberGenerator and SplittableNumberGenerator */
+public class StreamNumberGeneratorTest {
+
+    private static int[] draw(NumberGenerator ng, int count) {
+        int[] numbers = new int[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = ng.next(1000);
+        }
+        return numbers;
+    }
+
+    @Test
+    public void testStreamsAreReproducible() {
+        for (long stream = 0; stream < 10; stream++) {
+            assertArrayEquals(
+                    draw(StreamNumberGenerator.forStream(42, stream), 50),
+                    draw(StreamNumberGenerator.forStream(42, stream), 50)
+            );
+        }
+    }
+
+    @Test
+    public void testStreamGoldenValues() {
+        // recorded on JDK 17; seeding is not specified across JDK releases,
+        // so a failure here means seeded runs are no longer reproducible
+        // against earlier ones
+        StreamNumberGenerator ng = StreamNumberGenerator.forStream(42, 7);
+        int[] expected = { 1505004411, 618086510, 176282635, -1227308212, -1182237071 };
+        for (int bits : expected) {
+            assertEquals(bits, ng.nextBits());
+        }
+    }
+
+    @Test
+    public void testStreamsDiffer() {
+        Set<List<Integer>> seen = new HashSet<>();
+        for (long seed = 0; seed < 20; seed++) {
+            for (long stream = 0; stream < 50; stream++) {
+                List<Integer> numbers = new ArrayList<>();
+                for (int n : draw(StreamNumberGenerator.forStream(seed, stream), 8)) {
+                    numbers.add(n);
+                }
+                assertTrue(seen.add(numbers));
+            }
+        }
+    }
+
+    @Test
+    public void testNumbersInRange() {
+        List<NumberGenerator> generators = Arrays.asList(
+                StreamNumberGenerator.forStream(1, 2),
+                StreamNumberGenerator.threadLocal(),
+                new StreamNumberGenerator(ThreadLocalRandom.current()),
+                new SplittableNumberGenerator(3),
+                new SplittableNumberGenerator(3).split()
+        );
+        for (NumberGenerator ng : generators) {
+            for (int bound = 1; bound < 200; bound++) {
+                int n = ng.next(bound);
+                assertTrue(n >= 0 && n < bound);
+            }
+        }
+    }
+}
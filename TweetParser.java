@@ -1,6 +1,7 @@
 package org.cis1200;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +41,27 @@ public class TweetParser {
     static final String TOKEN = WORD_TOKEN + "|" + PUNCTUATION_TOKEN;
     static final String URL_REGEX = "\\bhttp[s]?://\\S*";
 
+    // the patterns above, compiled once rather than for every tweet
+    private static final Pattern TOKEN_PATTERN = Pattern.compile(TOKEN);
+    private static final Pattern URL_PATTERN = Pattern.compile(URL_REGEX);
+
+    /**
+     * Tells whether a token is a {@code PUNCTUATION_TOKEN}, exactly like
+     * {@code token.matches(PUNCTUATION_TOKEN)} but without a regular
+     * expression: the token must be a single ASCII punctuation character.
+     *
+     * @param token - the token to check (assumed not null)
+     * @return true if the token is punctuation
+     */
+    static boolean isPunctuation(String token) {
+        if (token.length() != 1) {
+            return false;
+        }
+        char c = token.charAt(0);
+        // \p{Punct} is !"#$%&'()*+,-./:;<=>?@[\]^_`{|}~
+        return c >= '!' && c <= '~' && !Character.isLetterOrDigit(c);
+    }
+
     /**
      * Given a String, remove all substrings that look like a URL. Any word that
      * begins with the character sequence 'http' is simply replaced with the
@@ -49,7 +71,7 @@ public class TweetParser {
      * @return s where each "URL-like" string has been deleted
      */
     static String removeURLs(String s) {
-        return s.replaceAll(URL_REGEX, "");
+        return URL_PATTERN.matcher(s).replaceAll("");
     }
 
     /**
@@ -60,10 +82,9 @@ public class TweetParser {
      * @return a list of tokens
      */
     static List<String> parseAndCleanTweet(String tweet) {
-        List<String> cleanedTweet = new LinkedList<>();
+        List<String> cleanedTweet = new ArrayList<>();
 
-        Pattern p = Pattern.compile(TOKEN);
-        Matcher m = p.matcher(removeURLs(tweet));
+        Matcher m = TOKEN_PATTERN.matcher(removeURLs(tweet));
         while (m.find()) {
             String word = m.group().trim();
             if (!word.isEmpty()) {
@@ -86,7 +107,7 @@ public class TweetParser {
     public static List<List<String>> rawTweetsToTrainingData(
             List<String> rawTweets
     ) {
-        List<List<String>> data = new LinkedList<>();
+        List<List<String>> data = new ArrayList<>();
 
         // clean every tweet and add all the resulting tweets to the
         // training data (if the result is non-empty)
@@ -99,4 +120,62 @@ public class TweetParser {
         return data;
     }
 
+    /**
+     * Trains the given {@code MarkovChain} on a stream of raw tweets, one tweet
+     * at a time: each raw tweet is parsed and cleaned with
+     * {@link #parseAndCleanTweet} and immediately added with
+     * {@link MarkovChain#addSequence}. Tweets with no tokens are ignored.
+     * <p>
+     * The result is the same as training on
+     * {@link #rawTweetsToTrainingData(List)}, but neither the raw tweets nor
+     * the training data are ever held in memory all at once, so the memory
+     * used is bounded by the size of the chain rather than the corpus. For
+     * instance, to train directly from a CSV file:
+     *
+     * <pre>
+     * TweetParser.trainOnRawTweets(CSV.csvFieldIterator(reader, column), mc);
+     * </pre>
+     *
+     * @param rawTweets an {@code Iterator} over the raw tweets
+     * @param mc        the chain to train
+     */
+    public static void trainOnRawTweets(Iterator<String> rawTweets, MarkovChain mc) {
+        while (rawTweets.hasNext()) {
+            // addSequence does nothing for empty tweets
+            mc.addSequence(parseAndCleanTweet(rawTweets.next()).iterator());
+        }
+    }
+
+    /**
+     * Trains a {@link CompactChainBuilder} on raw tweets, one at a time, as
+     * above.
+     *
+     * @param rawTweets an {@code Iterator} over the raw tweets
+     * @param builder   the builder to train
+     */
+    static void trainOnRawTweets(Iterator<String> rawTweets, CompactChainBuilder builder) {
+        while (rawTweets.hasNext()) {
+            builder.addSequence(parseAndCleanTweet(rawTweets.next()).iterator());
+        }
+    }
+
+    /**
+     * Trains a {@link CompactChainBuilder} on raw tweets as above, and indexes
+     * the same tweets in a {@link PlagiarismFilter.Builder}, in a single pass.
+     *
+     * @param rawTweets      an {@code Iterator} over the raw tweets
+     * @param builder        the builder to train
+     * @param trainingTweets the index to add each tweet to
+     */
+    static void trainOnRawTweets(
+            Iterator<String> rawTweets, CompactChainBuilder builder,
+            PlagiarismFilter.Builder trainingTweets
+    ) {
+        while (rawTweets.hasNext()) {
+            List<String> tweet = parseAndCleanTweet(rawTweets.next());
+            builder.addSequence(tweet.iterator());
+            trainingTweets.add(tweet);
+        }
+    }
+
 }
@@ -0,0 +1,303 @@
+package org.cis1200;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves tweets from a {@link TwitterBot} out of a pool of tweets generated
+ * ahead of time, so that a caller gets a tweet in the time it takes to remove
+ * it from a queue instead of the time it takes to walk the chain and render
+ * the walk.
+ * <p>
+ * The pool is a bounded ring buffer (an {@link ArrayBlockingQueue}), filled
+ * by background worker threads. Refilling is driven by two watermarks: the
+ * workers sleep until a {@link #take} leaves the pool at or below the low
+ * watermark, then fill it up to its capacity and go back to sleep. The gap
+ * between the two keeps the workers from waking for every tweet taken.
+ * <p>
+ * {@link #take} never blocks: if the pool is empty, because tweets are taken
+ * faster than the workers can generate them, the tweet is generated inline
+ * instead. The pool counts how often this happens, along with how many
+ * tweets the workers have generated and how fast, so the capacity and the
+ * number of workers can be tuned.
+ * <p>
+ * Every tweet, whether generated by a worker or inline, is an original tweet
+ * (see {@link TwitterBot#originalTweet}) from walks cut short by the limits
+ * the pool is given, so generating one takes bounded time.
+ * <p>
+ * The workers are daemon threads, and stop when the pool is closed. A worker
+ * whose tweet fails to generate, because the bot throws or finds no original
+ * tweet, counts the failure and carries on, so an unexpected exception never
+ * leaves the pool with fewer workers. After {@link #BACKOFF_AFTER} failures in
+ * a row, the worker waits before each further attempt, twice as long each
+ * time up to {@link #MAX_BACKOFF_MILLIS}, so a bot that always fails does not
+ * keep the workers spinning.
+ * <p>
+ * If the bot logs its choices (see {@link TwitterBot#logChoicesTo}), every
+ * tweet is logged when it is generated, whether by a worker or inline, not
+ * when it is taken.
+ */
+public class TweetPool implements AutoCloseable {
+
+    /** the failures in a row after which a worker starts to back off */
+    static final int BACKOFF_AFTER = 3;
+    /** the longest a worker waits between failed attempts */
+    static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final TwitterBot bot;
+    private final WalkLimits limits;
+    private final ArrayBlockingQueue<String> pool;
+    private final int lowWatermark;
+    private final Thread[] workers;
+
+    // guarded by this; volatile so that take can check them without locking
+    private volatile boolean refilling = true;
+    private volatile boolean closed;
+
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    // the time and refill count when the current (or last) refill started
+    // and, once it has finished, when it ended; guarded by this
+    private long refillStartNanos = System.nanoTime();
+    private long refillStartCount = 0;
+    private long refillEndNanos;
+    private long refillEndCount;
+
+    /**
+     * Creates a pool of tweets limited like those of
+     * {@link TwitterBotServer} (see {@link TwitterBotServer#TWEET_LIMITS}),
+     * and starts its workers, which fill it right away.
+     *
+     * @param bot          - the bot to generate tweets with (assumed not null)
+     * @param capacity     - the most tweets the pool holds
+     * @param lowWatermark - the depth at or below which the pool is refilled
+     * @param workers      - the number of threads that refill the pool
+     * @throws IllegalArgumentException if capacity or workers is not
+     *                                  positive, or lowWatermark is not
+     *                                  between 0 and capacity - 1
+     */
+    public TweetPool(TwitterBot bot, int capacity, int lowWatermark, int workers) {
+        this(bot, capacity, lowWatermark, workers, TwitterBotServer.TWEET_LIMITS);
+    }
+
+    /**
+     * Creates a pool as above, whose walks are cut short by the given limits.
+     *
+     * @param bot          - the bot to generate tweets with (assumed not null)
+     * @param capacity     - the most tweets the pool holds
+     * @param lowWatermark - the depth at or below which the pool is refilled
+     * @param workers      - the number of threads that refill the pool
+     * @param limits       - the limits of every walk (assumed not null)
+     * @throws IllegalArgumentException if capacity or workers is not
+     *                                  positive, or lowWatermark is not
+     *                                  between 0 and capacity - 1
+     */
+    public TweetPool(
+            TwitterBot bot, int capacity, int lowWatermark, int workers, WalkLimits limits
+    ) {
+        if (capacity <= 0 || workers <= 0 || lowWatermark < 0 || lowWatermark >= capacity) {
+            throw new IllegalArgumentException("invalid pool size");
+        }
+        this.bot = bot;
+        this.limits = limits;
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.lowWatermark = lowWatermark;
+        this.workers = new Thread[workers];
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::refill, "tweet-pool-" + i);
+            worker.setDaemon(true);
+            this.workers[i] = worker;
+        }
+        for (Thread worker : this.workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Takes a tweet from the pool, or generates one inline if the pool is
+     * empty. Never blocks.
+     *
+     * @return a randomly generated tweet
+     * @throws IllegalStateException if the pool is empty and no original tweet
+     *                               was found (see
+     *                               {@link TwitterBot#originalTweet})
+     */
+    public String take() {
+        String tweet = pool.poll();
+        if (!refilling && pool.size() <= lowWatermark) {
+            startRefill();
+        }
+        if (tweet != null) {
+            taken.increment();
+            return tweet;
+        }
+        fallbacks.increment();
+        return bot.originalTweet(StreamNumberGenerator.threadLocal(), limits)
+                .orElseThrow(() -> new IllegalStateException(
+                        "no original tweet in " + TwitterBot.ORIGINAL_ATTEMPTS + " attempts"
+                ));
+    }
+
+    private synchronized void startRefill() {
+        if (!refilling) {
+            setRefilling(true);
+            notifyAll();
+        }
+    }
+
+    // guarded by this; records when each refill starts and ends
+    private void setRefilling(boolean refilling) {
+        if (refilling == this.refilling) {
+            return;
+        }
+        if (refilling) {
+            refillStartNanos = System.nanoTime();
+            refillStartCount = refilled.sum();
+        } else {
+            refillEndNanos = System.nanoTime();
+            refillEndCount = refilled.sum();
+        }
+        this.refilling = refilling;
+    }
+
+    // waits until the pool needs refilling; false once the pool is closed
+    private synchronized boolean awaitRefill() throws InterruptedException {
+        while (!closed) {
+            if (pool.remainingCapacity() == 0) {
+                setRefilling(false);
+            } else if (refilling || pool.size() <= lowWatermark) {
+                setRefilling(true);
+                return true;
+            }
+            wait();
+        }
+        return false;
+    }
+
+    // waits before the next attempt after the given number of failures in a
+    // row; close() cuts the wait short
+    private synchronized void backOff(int failuresInRow) throws InterruptedException {
+        if (failuresInRow >= BACKOFF_AFTER && !closed) {
+            int doublings = Math.min(failuresInRow - BACKOFF_AFTER, 10);
+            wait(Math.min(MAX_BACKOFF_MILLIS, 1L << doublings));
+        }
+    }
+
+    // the loop of each worker thread
+    private void refill() {
+        NumberGenerator ng = StreamNumberGenerator.threadLocal();
+        int failuresInRow = 0;
+        try {
+            while (awaitRefill()) {
+                Optional<String> tweet;
+                try {
+                    tweet = bot.originalTweet(ng, limits);
+                } catch (RuntimeException e) {
+                    tweet = Optional.empty();
+                }
+                if (tweet.isEmpty()) {
+                    failures.increment();
+                    backOff(++failuresInRow);
+                    continue;
+                }
+                failuresInRow = 0;
+                // workers race for the last free slots, so a few tweets may
+                // be generated for nothing when the pool fills up
+                if (pool.offer(tweet.get())) {
+                    refilled.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** @return the number of tweets in the pool right now */
+    public int getDepth() {
+        return pool.size();
+    }
+
+    /** @return the most tweets the pool holds */
+    public int getCapacity() {
+        return pool.size() + pool.remainingCapacity();
+    }
+
+    /** @return the number of tweets served from the pool */
+    public long getTakenCount() {
+        return taken.sum();
+    }
+
+    /** @return the number of tweets generated inline because the pool was empty */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /** @return the number of tweets the workers have added to the pool */
+    public long getRefillCount() {
+        return refilled.sum();
+    }
+
+    /**
+     * @return the number of tweets the workers failed to generate because
+     *         the bot threw an exception or found no original tweet
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Measures how fast the workers fill the pool. The rate is taken over the
+     * refill in progress, or the last one if the workers are asleep, so it
+     * reflects the current load rather than being diluted by the time the
+     * pool spent full.
+     *
+     * @return the number of tweets added to the pool per second during the
+     *         current or last refill
+     */
+    public synchronized double getRefillRate() {
+        long endNanos = refilling ? System.nanoTime() : refillEndNanos;
+        long endCount = refilling ? refilled.sum() : refillEndCount;
+        double seconds = (endNanos - refillStartNanos) / 1e9;
+        return seconds <= 0 ? 0 : (endCount - refillStartCount) / seconds;
+    }
+
+    /** @return whether the workers are currently filling the pool */
+    public boolean isRefilling() {
+        return refilling;
+    }
+
+    /**
+     * Stops the workers. Tweets still in the pool can be taken, but it is no
+     * longer refilled, so take falls back to inline generation once it is
+     * empty.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Waits for the workers to stop after {@link #close}.
+     *
+     * @param millis the most time to wait for each worker
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitTermination(long millis) throws InterruptedException {
+        for (Thread worker : workers) {
+            worker.join(millis);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "depth=" + getDepth() + "/" + getCapacity() + " taken=" + getTakenCount()
+                + " fallbacks=" + getFallbackCount() + " refilled=" + getRefillCount()
+                + " failures=" + getFailureCount()
+                + String.format(" refillRate=%.1f/s", getRefillRate());
+    }
+}
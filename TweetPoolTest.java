@@ -0,0 +1,153 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/** Tests for TweetPool */
+public class TweetPoolTest {
+
+    // a bot that can only ever tweet "hello world!"
+    private static TwitterBot helloBot() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("hello", "world", "!").iterator());
+        return new TwitterBot(mc.compact());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testFillsAndServesFromPool() throws InterruptedException {
+        try (TweetPool pool = new TweetPool(helloBot(), 16, 4, 2)) {
+            awaitTrue(() -> pool.getDepth() == 16 && !pool.isRefilling());
+            assertEquals(16, pool.getCapacity());
+            assertEquals(16, pool.getRefillCount());
+            for (int i = 0; i < 10; i++) {
+                assertEquals("hello world!", pool.take());
+            }
+            assertEquals(10, pool.getTakenCount());
+            assertEquals(0, pool.getFallbackCount());
+            assertTrue(pool.getRefillRate() > 0);
+        }
+    }
+
+    @Test
+    public void testRefillsAtLowWatermark() throws InterruptedException {
+        try (TweetPool pool = new TweetPool(helloBot(), 10, 5, 1)) {
+            awaitTrue(() -> pool.getDepth() == 10 && !pool.isRefilling());
+            for (int i = 0; i < 4; i++) {
+                pool.take();
+            }
+            // still above the low watermark, so the worker stays asleep
+            Thread.sleep(20);
+            assertEquals(6, pool.getDepth());
+            assertEquals(10, pool.getRefillCount());
+            pool.take();
+            awaitTrue(() -> pool.getDepth() == 10 && !pool.isRefilling());
+            assertEquals(15, pool.getRefillCount());
+        }
+    }
+
+    @Test
+    public void testFallsBackWhenEmpty() throws InterruptedException {
+        TweetPool pool = new TweetPool(helloBot(), 3, 1, 1);
+        awaitTrue(() -> pool.getDepth() == 3);
+        pool.close();
+        pool.awaitTermination(10_000);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("hello world!", pool.take());
+        }
+        assertEquals(3, pool.getTakenCount());
+        assertEquals(2, pool.getFallbackCount());
+        assertEquals(0, pool.getDepth());
+    }
+
+    @Test
+    public void testWorkerSurvivesFailures() throws InterruptedException {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("hello", "world", "!").iterator());
+        int[] failuresLeft = { 3 };
+        // fails its first three walks
+        MarkovModel flaky = new MarkovModel() {
+            @Override
+            public Iterator<String> getWalk(NumberGenerator ng) {
+                synchronized (failuresLeft) {
+                    if (failuresLeft[0] > 0) {
+                        failuresLeft[0]--;
+                        throw new IllegalStateException("walk failed");
+                    }
+                }
+                return mc.getWalk(ng);
+            }
+
+            @Override
+            public List<Integer> findWalkChoices(List<String> tokens) {
+                return mc.findWalkChoices(tokens);
+            }
+        };
+        try (TweetPool pool = new TweetPool(new TwitterBot(flaky), 4, 1, 1)) {
+            awaitTrue(() -> pool.getDepth() == 4 && !pool.isRefilling());
+            assertEquals(3, pool.getFailureCount());
+            assertEquals(4, pool.getRefillCount());
+            assertEquals("hello world!", pool.take());
+        }
+    }
+
+    @Test
+    public void testBacksOffWhenBotAlwaysFails() throws InterruptedException {
+        MarkovModel broken = new MarkovModel() {
+            @Override
+            public Iterator<String> getWalk(NumberGenerator ng) {
+                throw new IllegalStateException("walk failed");
+            }
+
+            @Override
+            public List<Integer> findWalkChoices(List<String> tokens) {
+                throw new IllegalStateException("walk failed");
+            }
+        };
+        TweetPool pool = new TweetPool(new TwitterBot(broken), 4, 1, 2);
+        awaitTrue(() -> pool.getFailureCount() >= 2 * TweetPool.BACKOFF_AFTER);
+        Thread.sleep(200);
+        // without backing off, the workers would have failed millions of times
+        assertTrue(pool.getFailureCount() < 100, pool.toString());
+        assertEquals(0, pool.getDepth());
+        // closing cuts the wait short
+        pool.close();
+        pool.awaitTermination(10_000);
+        assertThrows(IllegalStateException.class, pool::take);
+    }
+
+    @Test
+    public void testWalksAreLimited() throws InterruptedException {
+        // two tokens leave out the "!"
+        WalkLimits limits = new WalkLimits(2, 140);
+        TweetPool pool = new TweetPool(helloBot(), 3, 1, 1, limits);
+        awaitTrue(() -> pool.getDepth() == 3);
+        pool.close();
+        pool.awaitTermination(10_000);
+        for (int i = 0; i < 4; i++) {
+            assertEquals("hello world", pool.take());
+        }
+        assertEquals(1, pool.getFallbackCount());
+    }
+
+    @Test
+    public void testInvalidPoolSize() {
+        TwitterBot bot = helloBot();
+        assertThrows(IllegalArgumentException.class, () -> new TweetPool(bot, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TweetPool(bot, 4, 4, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TweetPool(bot, 4, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TweetPool(bot, 4, 1, 0));
+    }
+
+}
@@ -0,0 +1,155 @@
+package org.cis1200;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+
+/**
+ * Turns walks of a {@link CompactMarkovChain} into tweets, exactly as
+ * described in {@link TwitterBot#generateTweet(NumberGenerator)}: tokens are
+ * separated by spaces, except that there is no space before punctuation.
+ * <p>
+ * Whether each token of the vocabulary is punctuation is worked out once,
+ * when the renderer is built, so rendering needs no regular expressions. The
+ * walk is followed by token ID (see {@link IdWalk#walkWhile}) straight into a
+ * {@code StringBuilder} that each thread reuses from tweet to tweet, so the
+ * only allocation per tweet is the resulting {@code String}.
+ * <p>
+ * A renderer is immutable once built, so it can be shared between threads.
+ */
+class TweetRenderer {
+
+    /** the initial capacity of each thread's buffer: one maximal tweet */
+    static final int INITIAL_CAPACITY = 280;
+    /** buffers that have grown beyond this are not kept for reuse */
+    static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private final CompactMarkovChain chain;
+    // the token and whether it is punctuation, by ID
+    private final String[] tokens;
+    private final boolean[] punctuation;
+
+    private final ThreadLocal<Builder> builders = ThreadLocal.withInitial(Builder::new);
+
+    /**
+     * @param chain - the chain whose walks to render (assumed not null)
+     */
+    TweetRenderer(CompactMarkovChain chain) {
+        this.chain = chain;
+        int size = chain.getVocabulary().size();
+        this.tokens = new String[size];
+        this.punctuation = new boolean[size];
+        for (int id = 0; id < size; id++) {
+            tokens[id] = chain.token(id);
+            punctuation[id] = TweetParser.isPunctuation(tokens[id]);
+        }
+    }
+
+    /**
+     * Follows the walk given by {@code ng} and renders it as a tweet.
+     *
+     * @param ng a source of numbers for walking through the chain
+     * @return the tweet generated by following that walk
+     * @throws NoSuchElementException if ng provides an invalid choice after
+     *                                the first token, like the iterator of
+     *                                the walk
+     */
+    String render(NumberGenerator ng) {
+        return render(ng, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Follows the walk given by {@code ng} and renders it as a tweet, unless
+     * the tweet gets longer than {@code maxChars}. The length is checked as
+     * each token is appended, before the successor of the token is drawn, and
+     * the walk is abandoned as soon as it is over the limit, without drawing
+     * any more numbers.
+     *
+     * @param ng       a source of numbers for walking through the chain
+     * @param maxChars the most characters the tweet may have
+     * @return the tweet generated by following that walk, or null if it would
+     *         be longer than maxChars
+     * @throws NoSuchElementException if ng provides an invalid choice after
+     *                                the first token before the tweet is over
+     *                                the limit, like the iterator of the walk
+     */
+    String render(NumberGenerator ng, int maxChars) {
+        Builder builder = builders.get();
+        builder.sb.setLength(0);
+        builder.first = true;
+        builder.maxChars = maxChars;
+        builder.offered = 0;
+        int count = chain.walkIdsWhile(ng, builder);
+        // the walk ended with an invalid choice after the last token offered
+        boolean invalid = count >= 0 && count < builder.offered;
+        String tweet = count < 0 || invalid ? null : builder.sb.toString();
+        if (builder.sb.capacity() > MAX_RETAINED_CAPACITY) {
+            builders.remove();
+        }
+        if (invalid) {
+            throw new NoSuchElementException("invalid choice in the walk");
+        }
+        return tweet;
+    }
+
+    /**
+     * Renders the tokens of any walk as a tweet, for models that are not
+     * compact. Punctuation is still recognized without regular expressions.
+     *
+     * @param walk the tokens of the walk
+     * @return the tweet made of those tokens
+     */
+    static String render(Iterator<String> walk) {
+        return render(walk, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Renders the tokens of any walk as a tweet as above, but stops taking
+     * tokens from the walk as soon as the tweet is longer than
+     * {@code maxChars}. An iterator draws the successor of each token as it
+     * returns it, so unlike {@link #render(NumberGenerator, int)}, an
+     * abandoned walk has drawn one number past the token that went over.
+     *
+     * @param walk     the tokens of the walk
+     * @param maxChars the most characters the tweet may have
+     * @return the tweet made of those tokens, or null if it would be longer
+     *         than maxChars
+     */
+    static String render(Iterator<String> walk, int maxChars) {
+        StringBuilder sb = new StringBuilder(INITIAL_CAPACITY);
+        boolean first = true;
+        while (walk.hasNext()) {
+            String token = walk.next();
+            if (!first && !TweetParser.isPunctuation(token)) {
+                sb.append(' ');
+            }
+            sb.append(token);
+            first = false;
+            if (sb.length() > maxChars) {
+                return null;
+            }
+        }
+        return sb.toString();
+    }
+
+    // appends the tokens of a walk to one thread's reusable buffer, until it
+    // is longer than maxChars
+    private final class Builder implements IntPredicate {
+        final StringBuilder sb = new StringBuilder(INITIAL_CAPACITY);
+        boolean first;
+        int maxChars;
+        // the number of tokens appended
+        int offered;
+
+        @Override
+        public boolean test(int id) {
+            offered++;
+            if (!first && !punctuation[id]) {
+                sb.append(' ');
+            }
+            sb.append(tokens[id]);
+            first = false;
+            return sb.length() <= maxChars;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for TweetRenderer and TweetParser.isPunctuation */
+public class TweetRendererTest {
+
+    // the rendering of TwitterBot before TweetRenderer, with regexes
+    private static String regexRender(Iterator<String> iterator) {
+        StringBuilder sb = new StringBuilder();
+        String curr = "";
+        if (iterator.hasNext()) {
+            curr = iterator.next();
+        }
+        while (iterator.hasNext()) {
+            String nextToken = iterator.next();
+            if (nextToken.matches(TweetParser.PUNCTUATION_TOKEN)) {
+                sb.append(curr);
+            } else {
+                sb.append(curr).append(" ");
+            }
+            curr = nextToken;
+        }
+        sb.append(curr);
+        return sb.toString();
+    }
+
+    @Test
+    public void testIsPunctuationMatchesRegex() {
+        for (char c = 0; c < 0x3000; c++) {
+            String token = String.valueOf(c);
+            assertEquals(token.matches(TweetParser.PUNCTUATION_TOKEN), TweetParser.isPunctuation(token));
+        }
+        for (String token : Arrays.asList("", "!!", "a", "don't", "#tag", "...")) {
+            assertEquals(token.matches(TweetParser.PUNCTUATION_TOKEN), TweetParser.isPunctuation(token));
+        }
+    }
+
+    @Test
+    public void testRenderingIsUnchanged() {
+        MarkovChain mc = new MarkovChain();
+        for (String tweet : Arrays.asList(
+                "Hello, world! It's a #test @user: (really) ok?",
+                "a banana ! and a chair .",
+                "$5 for 100% of it - \"quoted\" ~ end"
+        )) {
+            mc.addSequence(TweetParser.parseAndCleanTweet(tweet).iterator());
+        }
+        MarkovChain random = CompactMarkovChainTest.randomChain(2100, 200, 30);
+        for (MarkovChain chain : Arrays.asList(mc, random)) {
+            TwitterBot compact = new TwitterBot(chain.compact());
+            TwitterBot plain = new TwitterBot(chain);
+            for (long seed = 0; seed < 300; seed++) {
+                String expected = regexRender(chain.getWalk(new RandomNumberGenerator(seed)));
+                assertEquals(expected, compact.generateTweet(new RandomNumberGenerator(seed)));
+                assertEquals(expected, plain.generateTweet(new RandomNumberGenerator(seed)));
+            }
+        }
+        assertEquals("", new TwitterBot(new MarkovChain().compact()).generateTweet(
+                new RandomNumberGenerator(1)
+        ));
+    }
+
+    @Test
+    public void testInvalidChoiceThrows() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        TwitterBot compact = new TwitterBot(mc.compact());
+        TwitterBot plain = new TwitterBot(mc);
+        for (TwitterBot bot : Arrays.asList(compact, plain)) {
+            // "a", then "table", then 3 is out of range for the successors of
+            // "table"
+            int[] draws = { 0, 1, 3 };
+            int[] drawn = { 0 };
+            assertThrows(NoSuchElementException.class,
+                    () -> bot.generateTweet(bound -> draws[drawn[0]++]));
+            // a generator that fails after "a" also ends the walk early
+            drawn[0] = 0;
+            assertThrows(NoSuchElementException.class, () -> bot.generateTweet(bound -> {
+                if (drawn[0]++ > 0) {
+                    throw new IllegalStateException();
+                }
+                return 0;
+            }));
+        }
+        // an invalid choice before the tweet is over the limit still throws
+        int[] draws = { 0, 1, 3 };
+        int[] drawn = { 0 };
+        assertThrows(NoSuchElementException.class,
+                () -> compact.generateTweetWithin(bound -> draws[drawn[0]++], 100));
+        drawn[0] = 0;
+        assertNull(compact.generateTweetWithin(bound -> draws[drawn[0]++], 4));
+    }
+}
@@ -0,0 +1,94 @@
+package org.cis1200;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} that generates tweets from a {@link TwitterBot}, for
+ * {@link TwitterBot#tweets}, each one original (see
+ * {@link TwitterBot#requireOriginalTweet}). Every spliterator walks with its
+ * own {@link SplittableNumberGenerator}, and {@link #trySplit} hands half of
+ * the remaining tweets to a new spliterator with a generator split off from
+ * this one, so parallel streams generate tweets on every core without sharing
+ * any state.
+ * <p>
+ * The tweets have no meaningful order, so the spliterator is not
+ * {@code ORDERED}.
+ */
+class TweetSpliterator implements Spliterator<String> {
+
+    /** fewer tweets than this are not worth splitting */
+    static final long MIN_SPLIT = 64;
+
+    private final TwitterBot bot;
+    private final SplittableNumberGenerator ng;
+    // the number of tweets left to generate, or only an estimate used for
+    // splitting if the spliterator is unbounded
+    private long remaining;
+    private final boolean sized;
+
+    /**
+     * @param bot   the bot to generate tweets with (assumed not null)
+     * @param ng    the generator for this spliterator's walks (assumed not
+     *              null)
+     * @param count the number of tweets to generate, or {@code Long.MAX_VALUE}
+     *              for an unbounded stream
+     */
+    TweetSpliterator(TwitterBot bot, SplittableNumberGenerator ng, long count) {
+        this(bot, ng, count, count != Long.MAX_VALUE);
+    }
+
+    private TweetSpliterator(
+            TwitterBot bot, SplittableNumberGenerator ng, long count, boolean sized
+    ) {
+        this.bot = bot;
+        this.ng = ng;
+        this.remaining = count;
+        this.sized = sized;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (sized) {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+        }
+        action.accept(bot.requireOriginalTweet(ng));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        if (!sized) {
+            Spliterator.super.forEachRemaining(action);
+            return;
+        }
+        for (; remaining > 0; remaining--) {
+            action.accept(bot.requireOriginalTweet(ng));
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (remaining < MIN_SPLIT) {
+            return null;
+        }
+        // an unbounded spliterator halves its estimate, like Stream.generate
+        long half = remaining / 2;
+        remaining -= half;
+        return new TweetSpliterator(bot, ng.split(), half, sized);
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = NONNULL | IMMUTABLE;
+        return sized ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+}
@@ -0,0 +1,70 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/** Tests for TwitterBot.tweets and TweetSpliterator */
+public class TweetSpliteratorTest {
+
+    private static TwitterBot bot() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        mc.addSequence(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?").iterator());
+        return new TwitterBot(mc);
+    }
+
+    @Test
+    public void testSequentialTweetsAreReproducible() {
+        TwitterBot bot = bot();
+        List<String> tweets = bot.tweets(500, 17).collect(Collectors.toList());
+        assertEquals(500, tweets.size());
+        assertEquals(tweets, bot.tweets(500, 17).collect(Collectors.toList()));
+        // tweet i always uses stream i of the seed
+        for (int i = 0; i < tweets.size(); i++) {
+            assertEquals(bot.generateTweet(StreamNumberGenerator.forStream(17, i)), tweets.get(i));
+            assertEquals(bot.tweet(17, i), tweets.get(i));
+        }
+        assertEquals(tweets, bot.tweets(500, 17).parallel().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testParallelTweets() {
+        TwitterBot bot = bot();
+        List<String> tweets = bot.tweets(20000).parallel().collect(Collectors.toList());
+        assertEquals(20000, tweets.size());
+        // every tweet is a walk of the chain, and they are not all the same
+        Set<String> distinct = new HashSet<>(tweets);
+        assertTrue(distinct.contains("a chair"));
+        assertTrue(distinct.size() > 10);
+        assertEquals(0, bot.tweets(0).parallel().count());
+        assertEquals(1000, bot.tweets().parallel().limit(1000).count());
+        assertThrows(IllegalArgumentException.class, () -> bot.tweets(-1));
+    }
+
+    @Test
+    public void testSplitting() {
+        TweetSpliterator whole = new TweetSpliterator(bot(), new SplittableNumberGenerator(1), 1000);
+        Spliterator<String> half = whole.trySplit();
+        assertNotNull(half);
+        assertEquals(1000, whole.estimateSize() + half.estimateSize());
+        assertTrue(whole.hasCharacteristics(Spliterator.SIZED));
+        assertNull(new TweetSpliterator(bot(), new SplittableNumberGenerator(1), 10).trySplit());
+
+        TweetSpliterator unbounded = new TweetSpliterator(
+                bot(), new SplittableNumberGenerator(1), Long.MAX_VALUE
+        );
+        assertFalse(unbounded.hasCharacteristics(Spliterator.SIZED));
+        assertNotNull(unbounded.trySplit());
+        assertTrue(unbounded.tryAdvance(tweet -> { }));
+    }
+
+    @Test
+    public void testGenerateRandomTweets() {
+        assertEquals(25, bot().generateRandomTweets(25).size());
+        assertTrue(bot().generateRandomTweets(0).isEmpty());
+    }
+}
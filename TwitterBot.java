@@ -1,21 +1,89 @@
 package org.cis1200;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class TwitterBot {
 
-    /** The MarkovChain you'll be using to generate tweets */
-    private final MarkovChain mc;
+    /**
+     * The most walks tried for each randomly generated tweet, in search of
+     * one that does not copy a training tweet (see {@link #isTrainingTweet}).
+     */
+    static final int ORIGINAL_ATTEMPTS = 10;
+
+    /**
+     * The MarkovModel you'll be using to generate tweets. The bot is never
+     * trained further, so the chain is frozen into its compact form.
+     */
+    final MarkovModel mc;
+
+    // renders walks of mc without regular expressions if it is compact, or
+    // null otherwise
+    private final TweetRenderer renderer;
+
+    // an index of the training tweets, or null if they are not known
+    private final PlagiarismFilter trainingTweets;
+
+    // the stream the choices of every random tweet are logged to, or null
+    private volatile OutputStream choiceLog;
 
     /**
+     * Trains the bot straight into a {@link CompactMarkovChain} (see
+     * {@link CompactChainBuilder}), so no {@link MarkovChain} is built along
+     * the way, even while training.
+     * <p>
+     * The bot does not index its training tweets, so it generates them like
+     * any other walk; a bot trained on a single tweet tweets exactly that.
+     * Use {@link #rejectingCopies} for a bot that never returns a copy.
+     *
      * @param trainingData - cleaned data from which to construct the TwitterBot
      *                     MarkovModel
      */
     public TwitterBot(List<List<String>> trainingData) {
+        this(CompactChainBuilder.train(trainingData));
+    }
+
+    /**
+     * Trains a bot as above that also indexes its training tweets (see
+     * {@link PlagiarismFilter}), so that its random tweets never copy one.
+     *
+     * @param trainingData - cleaned data from which to construct the TwitterBot
+     *                     MarkovModel
+     * @return the trained bot
+     */
+    public static TwitterBot rejectingCopies(List<List<String>> trainingData) {
+        return new TwitterBot(
+                CompactChainBuilder.train(trainingData), new PlagiarismFilter(trainingData)
+        );
+    }
 
-        mc = new MarkovChain(trainingData);
+    /**
+     * @param model - an already trained model to generate tweets from
+     */
+    TwitterBot(MarkovModel model) {
+        this(model, null);
+    }
+
+    /**
+     * @param model          - an already trained model to generate tweets from
+     * @param trainingTweets - an index of the tweets the model was trained on,
+     *                       or null if they are not known
+     */
+    TwitterBot(MarkovModel model, PlagiarismFilter trainingTweets) {
+        mc = model;
+        this.trainingTweets = trainingTweets;
+        renderer = model instanceof CompactMarkovChain
+                ? new TweetRenderer((CompactMarkovChain) model)
+                : null;
     }
 
     /**
@@ -38,45 +106,199 @@ public class TwitterBot {
      * to
      * produce the tweet: {@code "a banana! and a chair"}.
      * <p>
-     * <b>NOTE:</b> The {@link StringBuilder} class provides a useful way to append
-     * {@code String}s and the method {@link String#matches(String)} can be used
-     * with
-     * {@link TweetParser#PUNCTUATION_TOKEN} to determine whether a token is
-     * punctuation.
+     * Tokens count as punctuation if they match
+     * {@link TweetParser#PUNCTUATION_TOKEN}; this is checked without regular
+     * expressions (see {@link TweetRenderer}).
      *
      * @param ng a source of numbers for walking through the TwitterBot's
      *           MarkovChain
      * @return the tweet generated by following that walk
      */
     public String generateTweet(NumberGenerator ng) {
-        Iterator<String> iterator = mc.getWalk(ng);
-        StringBuilder sb = new StringBuilder();
+        if (renderer != null) {
+            return renderer.render(ng);
+        }
+        return TweetRenderer.render(mc.getWalk(ng));
+    }
+
+    /**
+     * Generates a tweet as above, unless it would be longer than
+     * {@code maxChars}. The length of the tweet is tracked as the walk goes,
+     * and the walk is abandoned as soon as it is too long.
+     *
+     * @param ng       a source of numbers for walking through the TwitterBot's
+     *                 MarkovChain
+     * @param maxChars the most characters the tweet may have
+     * @return the tweet generated by following that walk, or null if it is
+     *         longer than maxChars
+     */
+    String generateTweetWithin(NumberGenerator ng, int maxChars) {
+        if (renderer != null) {
+            return renderer.render(ng, maxChars);
+        }
+        return TweetRenderer.render(mc.getWalk(ng), maxChars);
+    }
+
+    /**
+     * Generates a tweet as above from a walk cut short by the given limits
+     * (see {@link WalkLimits}), so that generating it takes bounded time even
+     * when the chain has long cycles.
+     *
+     * @param ng     a source of numbers for walking through the TwitterBot's
+     *               MarkovChain
+     * @param limits the limits of the walk
+     * @return the tweet generated by following that walk
+     */
+    public String generateTweet(NumberGenerator ng, WalkLimits limits) {
+        return TweetRenderer.render(mc.getWalk(ng, limits));
+    }
+
+    /**
+     * Checks whether a tweet is one of the tweets the bot was trained on,
+     * ignoring case. This takes constant time on average, and compares
+     * 64-bit hashes rather than text (see {@link PlagiarismFilter}).
+     *
+     * @param tweet a tweet, as generated by this bot
+     * @return true if the tweet copies a training tweet; always false if the
+     *         bot was not built from training data
+     */
+    public boolean isTrainingTweet(String tweet) {
+        return trainingTweets != null && trainingTweets.contains(tweet);
+    }
+
+    /**
+     * Generates a tweet as in {@link #generateTweet(NumberGenerator)} that
+     * does not copy any training tweet, by following walks given by
+     * {@code ng} until one is original.
+     *
+     * @param ng          a source of numbers for the walks
+     * @param maxAttempts the most walks to try
+     * @return the first original tweet, or nothing if every attempt copied a
+     *         training tweet
+     * @throws IllegalArgumentException if maxAttempts is not positive
+     */
+    public Optional<String> generateOriginalTweet(NumberGenerator ng, int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive");
+        }
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            String tweet = generateTweet(ng);
+            if (!isTrainingTweet(tweet)) {
+                return Optional.of(tweet);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Generates a tweet from up to {@link #ORIGINAL_ATTEMPTS} walks given by
+     * {@code ng}, returning the first that does not copy a training tweet.
+     * Every random tweet of this bot is generated this way. A chain can have
+     * no original walks at all (for example, one trained on a single tweet),
+     * so the search gives up rather than walking forever.
+     *
+     * @param ng a source of numbers for the walks
+     * @return the first original tweet, or nothing if every attempt copied a
+     *         training tweet
+     */
+    Optional<String> originalTweet(NumberGenerator ng) {
+        return logged(ng, recorded -> firstOriginal(() -> generateTweet(recorded)));
+    }
+
+    /**
+     * Generates a tweet as above, from walks cut short by the given limits
+     * (see {@link #generateTweet(NumberGenerator, WalkLimits)}).
+     *
+     * @param ng     a source of numbers for the walks
+     * @param limits the limits of each walk
+     * @return the first original tweet, or nothing if every attempt copied a
+     *         training tweet
+     */
+    Optional<String> originalTweet(NumberGenerator ng, WalkLimits limits) {
+        return logged(ng, recorded -> firstOriginal(() -> generateTweet(recorded, limits)));
+    }
+
+    /**
+     * Logs the choices behind every random tweet of this bot from now on, so
+     * that any tweet it served can be regenerated exactly. Every tweet found
+     * by {@link #originalTweet} (and so by {@link #generateTweet()},
+     * {@link #tweets}, a {@link TweetPool} or a {@link TwitterBotServer})
+     * walks with a {@link RecordingNumberGenerator}, and once the tweet is
+     * found its choices, for every walk tried, are written to the log as one
+     * record (see {@link RecordingNumberGenerator#writeTo}) and flushed.
+     * Records are written whole, under a lock on the stream, so many threads
+     * can log at once.
+     * <p>
+     * To regenerate a tweet, read its record with
+     * {@link ReplayNumberGenerator#readFrom} and pass it to
+     * {@link #originalTweet}, with the same limits, on a bot with the same
+     * model and training tweets.
+     *
+     * @param log - the stream to log to, or null to stop logging
+     */
+    public void logChoicesTo(OutputStream log) {
+        choiceLog = log;
+    }
 
-        String curr = "";
-        if (iterator.hasNext()) {
-            curr = iterator.next();
+    // runs walks with ng, recording its choices and logging them with the
+    // tweet found, if there is a choice log
+    private Optional<String> logged(
+            NumberGenerator ng, Function<NumberGenerator, Optional<String>> walks
+    ) {
+        OutputStream log = choiceLog;
+        if (log == null) {
+            return walks.apply(ng);
+        }
+        RecordingNumberGenerator recorder = new RecordingNumberGenerator(ng);
+        Optional<String> tweet = walks.apply(recorder);
+        if (tweet.isPresent()) {
+            try {
+                synchronized (log) {
+                    recorder.writeTo(log);
+                    log.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not log the choices of a tweet", e);
+            }
         }
+        return tweet;
+    }
 
-        while (iterator.hasNext()) {
-            String nextToken = iterator.next();
-            if (nextToken.matches(TweetParser.PUNCTUATION_TOKEN)) {
-                sb.append(curr);
-            } else {
-                sb.append(curr).append(" ");
+    private Optional<String> firstOriginal(Supplier<String> walk) {
+        for (int attempt = 0; attempt < ORIGINAL_ATTEMPTS; attempt++) {
+            String tweet = walk.get();
+            if (!isTrainingTweet(tweet)) {
+                return Optional.of(tweet);
             }
-            curr = nextToken;
         }
-        sb.append(curr);
-        return sb.toString();
+        return Optional.empty();
+    }
+
+    /**
+     * Generates an original tweet as in {@link #originalTweet}, for the
+     * methods below that must return one.
+     *
+     * @param ng a source of numbers for the walks
+     * @return the first original tweet
+     * @throws IllegalStateException if every attempt copied a training tweet
+     */
+    String requireOriginalTweet(NumberGenerator ng) {
+        return originalTweet(ng).orElseThrow(() -> new IllegalStateException(
+                "no original tweet in " + ORIGINAL_ATTEMPTS + " attempts"
+        ));
     }
 
     /**
-     * Generates a random tweet. This function is implemented for you.
+     * Generates a random tweet that does not copy a training tweet (see
+     * {@link #originalTweet}). The walks draw from the random generator of
+     * the current thread (see {@link StreamNumberGenerator#threadLocal}), so
+     * many threads can generate tweets at once without contending.
      * 
      * @return a randomly generated tweet
+     * @throws IllegalStateException if every attempt copied a training tweet
      */
     public String generateTweet() {
-        return generateTweet(new RandomNumberGenerator());
+        return requireOriginalTweet(StreamNumberGenerator.threadLocal());
     }
 
     /**
@@ -86,14 +308,82 @@ public class TwitterBot {
      *
      * @param numTweets number of tweets to generate
      * @return a list of random tweets of length {@code numTweets}
+     * @throws IllegalStateException if no original tweet was found for one
+     *                               of them (see {@link #generateTweet()})
      */
     public List<String> generateRandomTweets(int numTweets) {
-        List<String> tweets = new ArrayList<>();
-        while (numTweets > 0) {
-            tweets.add(generateTweet());
-            numTweets--;
+        return tweets(Math.max(numTweets, 0)).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a stream of {@code count} randomly generated tweets, each
+     * generated like {@link #generateTweet()} so that it does not copy a
+     * training tweet. The stream
+     * is backed by a spliterator that gives each split its own independent
+     * {@link SplittableNumberGenerator}, so calling {@code parallel()} on it
+     * generates tweets on every core without contention.
+     *
+     * @param count the number of tweets to generate
+     * @return a stream of {@code count} random tweets, which throws
+     *         {@code IllegalStateException} if no original tweet is found for
+     *         one of them
+     * @throws IllegalArgumentException if count is negative
+     */
+    public Stream<String> tweets(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
+        }
+        return StreamSupport.stream(
+                new TweetSpliterator(this, new SplittableNumberGenerator(), count), false
+        );
+    }
+
+    /**
+     * Returns a stream of {@code count} tweets as above, generated from the
+     * given seed. Tweet number {@code i} always walks with stream {@code i} of
+     * the seed (see {@link StreamNumberGenerator#forStream}), so the stream
+     * generates exactly the same tweets, in the same order, whether it runs
+     * sequentially or in parallel, and {@link #tweet(long, long)} regenerates
+     * any one of them.
+     *
+     * @param count the number of tweets to generate
+     * @param seed  the seed of the random numbers
+     * @return a stream of {@code count} tweets, which throws
+     *         {@code IllegalStateException} if no original tweet is found for
+     *         one of them
+     * @throws IllegalArgumentException if count is negative
+     */
+    public Stream<String> tweets(long count, long seed) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count cannot be negative");
         }
-        return tweets;
+        return LongStream.range(0, count).mapToObj(i -> tweet(seed, i));
+    }
+
+    /**
+     * Generates tweet number {@code index} of {@link #tweets(long, long)}.
+     *
+     * @param seed  the seed of the random numbers
+     * @param index the index of the tweet
+     * @return the tweet, generated like {@link #generateTweet()} with the
+     *         walks of that stream
+     */
+    public String tweet(long seed, long index) {
+        return requireOriginalTweet(StreamNumberGenerator.forStream(seed, index));
+    }
+
+    /**
+     * Returns an unbounded stream of randomly generated tweets, which can be
+     * run in parallel like {@link #tweets(long)}. Use {@code limit} to take a
+     * fixed number of them.
+     *
+     * @return an infinite stream of random tweets
+     */
+    public Stream<String> tweets() {
+        return StreamSupport.stream(
+                new TweetSpliterator(this, new SplittableNumberGenerator(), Long.MAX_VALUE),
+                false
+        );
     }
 
 }
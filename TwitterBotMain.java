@@ -57,6 +57,16 @@ public class TwitterBotMain {
     static final int TWEET_COLUMN = 2;
     /** File to store generated tweets */
     static final String PATH_TO_OUTPUT_TWEETS = "files/generated_tweets.txt";
+    /**
+     * File to cache the trained MarkovChain in (see {@link ChainSnapshot}). If
+     * it is newer than PATH_TO_TWEETS, it is loaded instead of retraining.
+     */
+    static final String PATH_TO_SNAPSHOT = "files/trained_chain.snapshot";
+    /**
+     * File to cache the index of the training tweets in (see
+     * {@link PlagiarismFilter}), saved and loaded along with PATH_TO_SNAPSHOT.
+     */
+    static final String PATH_TO_TRAINING_INDEX = "files/trained_chain.tweets";
 
     /**
      * Prints ten generated tweets to the console so that you can see how your bot
@@ -65,17 +75,9 @@ public class TwitterBotMain {
      */
     public static void main(String[] args) {
 
-        // Obtain a Reader for processing the CSV file
-        BufferedReader csvReader = FileUtilities.fileToReader(PATH_TO_TWEETS);
-
-        // Extract all the CSV fields at the given TWEET_COLUMN
-        List<String> rawTweets = CSV.csvFieldsAtColumn(csvReader, TWEET_COLUMN);
-
-        // Parse the raw tweets into training data
-        List<List<String>> trainingData = TweetParser.rawTweetsToTrainingData(rawTweets);
-
-        // Construct a trained TwitterBot
-        TwitterBot t = new TwitterBot(trainingData);
+        // Load the trained chain from its snapshot, or train it and save the
+        // snapshot for the next run
+        TwitterBot t = loadOrTrain();
 
         // Uncomment the line below to see the MarkovChain produced from the given
         // training data
@@ -92,4 +94,52 @@ public class TwitterBotMain {
         FileUtilities.writeStringsToFile(tweets, PATH_TO_OUTPUT_TWEETS, false);
     }
 
+    /**
+     * Loads the chain from PATH_TO_SNAPSHOT and the index of the training
+     * tweets from PATH_TO_TRAINING_INDEX if they are up to date. Otherwise,
+     * trains both from the tweets in PATH_TO_TWEETS and saves them.
+     *
+     * @return a bot for the trained chain, which rejects tweets that copy a
+     *         training tweet
+     */
+    static TwitterBot loadOrTrain() {
+        File tweetsFile = new File(PATH_TO_TWEETS);
+        File snapshotFile = new File(PATH_TO_SNAPSHOT);
+        File indexFile = new File(PATH_TO_TRAINING_INDEX);
+        if (snapshotFile.lastModified() > tweetsFile.lastModified()
+                && indexFile.lastModified() > tweetsFile.lastModified()) {
+            try {
+                return new TwitterBot(
+                        CompactMarkovChain.load(snapshotFile.toPath()),
+                        PlagiarismFilter.load(indexFile.toPath())
+                );
+            } catch (IOException e) {
+                System.out.println("Error loading snapshot, retraining");
+            }
+        }
+
+        // Obtain a Reader for processing the CSV file
+        BufferedReader csvReader = FileUtilities.fileToReader(PATH_TO_TWEETS);
+
+        // Stream the CSV fields at the given TWEET_COLUMN through the parser
+        // straight into the compact form and the index of training tweets, one
+        // tweet at a time
+        CompactChainBuilder builder = new CompactChainBuilder();
+        PlagiarismFilter.Builder trainingTweets = new PlagiarismFilter.Builder();
+        TweetParser.trainOnRawTweets(
+                CSV.csvFieldIterator(csvReader, TWEET_COLUMN), builder, trainingTweets
+        );
+
+        // Build the chain and the index and save them for next time
+        CompactMarkovChain chain = builder.build();
+        PlagiarismFilter index = trainingTweets.build();
+        try {
+            chain.save(snapshotFile.toPath());
+            index.save(indexFile.toPath());
+        } catch (IOException e) {
+            System.out.println("Error saving snapshot");
+        }
+        return new TwitterBot(chain, index);
+    }
+
 }
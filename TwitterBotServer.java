@@ -0,0 +1,278 @@
+package org.cis1200;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves tweets and sequence scores over HTTP, so that a chain is loaded or
+ * trained once (see {@link TwitterBotMain#loadOrTrain}) and then reused by
+ * every request, instead of once per run of {@link TwitterBotMain}.
+ * <p>
+ * The server handles two requests, both answered in UTF-8 plain text:
+ *
+ * <pre>
+ *  GET  /tweet?n=N&amp;seed=S   N tweets (default 1), one per line. With a seed,
+ *                           the same tweets every time; without one, random
+ *                           tweets. Either way, tweets that copy a training
+ *                           tweet are rejected.
+ *  POST /score               the body holds one tweet per line; the answer
+ *                           has a line "logProbability perplexity" for each
+ *                           (see SequenceScorer)
+ * </pre>
+ *
+ * Every walk is cut short by {@link #TWEET_LIMITS}, so no request can make
+ * the server follow an arbitrarily long walk, and a /score body may hold at
+ * most {@link #MAX_BODY_BYTES} bytes in at most {@link #MAX_TWEETS} lines.
+ * Malformed requests are answered with status 400, bodies over those limits
+ * with 413, and other methods with 405 and an {@code Allow} header. If no
+ * original walk is found for one of the tweets (see
+ * {@link TwitterBot#originalTweet}), the request is answered with 503.
+ * <p>
+ * Requests are handled on a fixed pool of threads, one request per thread at
+ * a time. Connections beyond that wait in the listen backlog, so thousands of
+ * concurrent clients are served without creating a thread for each of them.
+ * The bot and scorer are immutable, so the threads share them freely.
+ */
+public class TwitterBotServer implements AutoCloseable {
+
+    /** the most tweets a single request may ask for */
+    public static final int MAX_TWEETS = 1000;
+    /** the most bytes the body of a /score request may hold */
+    public static final int MAX_BODY_BYTES = 1 << 20;
+    /**
+     * the limits of every walk: no more tokens or characters than fit in a
+     * real tweet (see {@link ConstrainedTweetGenerator#TWEET_LENGTH})
+     */
+    public static final WalkLimits TWEET_LIMITS = new WalkLimits(
+            ConstrainedTweetGenerator.TWEET_LENGTH, ConstrainedTweetGenerator.TWEET_LENGTH
+    );
+    /** the port used when none is given to main */
+    static final int DEFAULT_PORT = 8080;
+    /** connections that may wait to be accepted */
+    private static final int BACKLOG = 4096;
+
+    private final TwitterBot bot;
+    private final SequenceScorer scorer;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for the given chain, bound to the given address. It
+     * does not handle requests until it is started.
+     *
+     * @param chain   - the chain to generate and score tweets with (assumed
+     *                not null)
+     * @param address - the address to listen on; port 0 picks a free port
+     * @param threads - the number of threads handling requests
+     * @throws IOException              if the address cannot be bound
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public TwitterBotServer(CompactMarkovChain chain, InetSocketAddress address, int threads)
+            throws IOException {
+        this(new TwitterBot(chain), address, threads);
+    }
+
+    /**
+     * Creates a server for the given bot, as above. Its random tweets are
+     * checked against the bot's training tweets, if it knows them (see
+     * {@link TwitterBot#generateTweet()}).
+     *
+     * @param bot     - the bot to generate tweets with, whose model must be a
+     *                {@link CompactMarkovChain} (assumed not null)
+     * @param address - the address to listen on; port 0 picks a free port
+     * @param threads - the number of threads handling requests
+     * @throws IOException              if the address cannot be bound
+     * @throws IllegalArgumentException if threads is not positive or the
+     *                                  model is not compact
+     */
+    public TwitterBotServer(TwitterBot bot, InetSocketAddress address, int threads)
+            throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        if (!(bot.mc instanceof CompactMarkovChain)) {
+            throw new IllegalArgumentException("the bot's model must be compact");
+        }
+        this.bot = bot;
+        this.scorer = new SequenceScorer((CompactMarkovChain) bot.mc);
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/tweet", this::handleTweet);
+        server.createContext("/score", this::handleScore);
+    }
+
+    /** Starts handling requests in the background. */
+    public void start() {
+        server.start();
+    }
+
+    /** @return the port the server listens on */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, finishing the requests in progress.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleTweet(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                respond(exchange, 405, "use GET\n");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            int n;
+            Long seed;
+            try {
+                n = Integer.parseInt(query.getOrDefault("n", "1"));
+                seed = query.containsKey("seed") ? Long.valueOf(query.get("seed")) : null;
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, "n and seed must be integers\n");
+                return;
+            }
+            if (n < 0 || n > MAX_TWEETS) {
+                respond(exchange, 400, "n must be between 0 and " + MAX_TWEETS + "\n");
+                return;
+            }
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < n; i++) {
+                // tweet i of a seed walks with stream i, like TwitterBot#tweets
+                NumberGenerator ng = seed == null ? StreamNumberGenerator.threadLocal()
+                        : StreamNumberGenerator.forStream(seed, i);
+                Optional<String> tweet = bot.originalTweet(ng, TWEET_LIMITS);
+                if (tweet.isEmpty()) {
+                    respond(exchange, 503, "could not generate an original tweet\n");
+                    return;
+                }
+                body.append(tweet.get()).append('\n');
+            }
+            respond(exchange, 200, body.toString());
+        }
+    }
+
+    private void handleScore(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "use POST\n");
+                return;
+            }
+            // read one byte past the limit to tell whether the body goes over
+            byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                respond(exchange, 413, "the body may hold at most " + MAX_BODY_BYTES
+                        + " bytes\n");
+                return;
+            }
+            String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n");
+            if (lines.length > MAX_TWEETS) {
+                respond(exchange, 413, "the body may hold at most " + MAX_TWEETS + " lines\n");
+                return;
+            }
+            StringBuilder body = new StringBuilder();
+            for (String line : lines) {
+                List<String> tokens = TweetParser.parseAndCleanTweet(line);
+                if (tokens.isEmpty()) {
+                    respond(exchange, 400, "every line must hold a tweet\n");
+                    return;
+                }
+                double logProb = scorer.logProbability(tokens);
+                body.append(logProb).append(' ').append(scorer.perplexity(tokens)).append('\n');
+            }
+            respond(exchange, 200, body.toString());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Decodes a query string such as {@code n=3&seed=7}. A parameter without a
+     * value maps to the empty string, and the last of repeated parameters
+     * wins.
+     *
+     * @param rawQuery the query, still URL-encoded, or null if there is none
+     * @return the parameters
+     */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(
+                    URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8)
+            );
+        }
+        return params;
+    }
+
+    /**
+     * Loads or trains the chain and serves it until the process is killed.
+     * Given a choice log, the choices behind every tweet served are appended
+     * to it (see {@link TwitterBot#logChoicesTo}); replay them with
+     * {@link #TWEET_LIMITS}.
+     *
+     * @param args optionally, the port to listen on, the number of request
+     *             threads and the file to log choices to
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : 4 * Runtime.getRuntime().availableProcessors();
+        TwitterBot bot = TwitterBotMain.loadOrTrain();
+        if (args.length > 2) {
+            bot.logChoicesTo(new BufferedOutputStream(Files.newOutputStream(
+                    Path.of(args[2]), StandardOpenOption.CREATE, StandardOpenOption.APPEND
+            )));
+        }
+        TwitterBotServer server = new TwitterBotServer(
+                bot, new InetSocketAddress(port), threads
+        );
+        server.start();
+        System.out.println("Serving tweets on port " + server.getPort());
+    }
+}
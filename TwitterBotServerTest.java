@@ -0,0 +1,198 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/** Tests for TwitterBotServer and LoadTestClient */
+public class TwitterBotServerTest {
+
+    private static CompactMarkovChain illustrativeExample() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        mc.addSequence(Arrays.asList("a", "banana", "!", "and", "a", "banana", "?").iterator());
+        return mc.compact();
+    }
+
+    private static TwitterBotServer start(CompactMarkovChain chain) throws IOException {
+        TwitterBotServer server = new TwitterBotServer(
+                chain, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4
+        );
+        server.start();
+        return server;
+    }
+
+    private static URI uri(TwitterBotServer server, String path) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + path);
+    }
+
+    private static HttpResponse<String> send(HttpRequest request)
+            throws IOException, InterruptedException {
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> get(TwitterBotServer server, String path)
+            throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(server, path)).GET().build());
+    }
+
+    @Test
+    public void testSeededTweets() throws IOException, InterruptedException {
+        CompactMarkovChain chain = illustrativeExample();
+        try (TwitterBotServer server = start(chain)) {
+            HttpResponse<String> response = get(server, "/tweet?n=5&seed=7");
+            assertEquals(200, response.statusCode());
+            TwitterBot bot = new TwitterBot(chain);
+            String expected = LongStream.range(0, 5)
+                    .mapToObj(i -> bot.originalTweet(
+                            StreamNumberGenerator.forStream(7, i), TwitterBotServer.TWEET_LIMITS
+                    ).get() + "\n")
+                    .collect(Collectors.joining());
+            assertEquals(expected, response.body());
+            // these walks are far shorter than the limits, so they are not cut
+            assertEquals(
+                    bot.tweets(5, 7).map(tweet -> tweet + "\n").collect(Collectors.joining()),
+                    response.body()
+            );
+            assertEquals(1, get(server, "/tweet").body().split("\n").length);
+        }
+    }
+
+    @Test
+    public void testInvalidTweetRequests() throws IOException, InterruptedException {
+        try (TwitterBotServer server = start(illustrativeExample())) {
+            assertEquals(400, get(server, "/tweet?n=lots").statusCode());
+            assertEquals(400, get(server, "/tweet?n=-1").statusCode());
+            assertEquals(400, get(server, "/tweet?n=1001").statusCode());
+            assertEquals(400, get(server, "/tweet?seed=1.5").statusCode());
+            HttpRequest post = HttpRequest.newBuilder(uri(server, "/tweet"))
+                    .POST(HttpRequest.BodyPublishers.ofString("a chair"))
+                    .build();
+            HttpResponse<String> response = send(post);
+            assertEquals(405, response.statusCode());
+            assertEquals(Optional.of("GET"), response.headers().firstValue("Allow"));
+        }
+    }
+
+    @Test
+    public void testNoOriginalTweet() throws IOException, InterruptedException {
+        // every walk copies the one training tweet
+        TwitterBot bot = TwitterBot.rejectingCopies(
+                TweetParser.rawTweetsToTrainingData(Collections.singletonList("a chair"))
+        );
+        try (TwitterBotServer server = new TwitterBotServer(
+                bot, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1
+        )) {
+            server.start();
+            assertEquals(503, get(server, "/tweet?seed=1").statusCode());
+            assertEquals(503, get(server, "/tweet").statusCode());
+            assertEquals(200, get(server, "/tweet?n=0").statusCode());
+        }
+    }
+
+    @Test
+    public void testTweetsAreBounded() throws IOException, InterruptedException {
+        // "ha" follows itself 99 times in 100, so most walks run past 280
+        // characters
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Collections.nCopies(100, "ha").iterator());
+        CompactMarkovChain chain = mc.compact();
+        int limit = ConstrainedTweetGenerator.TWEET_LENGTH;
+        assertTrue(new TwitterBot(chain).tweets(50, 1).anyMatch(tweet -> tweet.length() > limit));
+        try (TwitterBotServer server = start(chain)) {
+            for (String path : Arrays.asList("/tweet?n=50&seed=1", "/tweet?n=50")) {
+                HttpResponse<String> response = get(server, path);
+                assertEquals(200, response.statusCode());
+                for (String tweet : response.body().split("\n")) {
+                    assertTrue(tweet.length() <= limit, tweet);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testScore() throws IOException, InterruptedException {
+        CompactMarkovChain chain = illustrativeExample();
+        SequenceScorer scorer = new SequenceScorer(chain);
+        try (TwitterBotServer server = start(chain)) {
+            HttpRequest post = HttpRequest.newBuilder(uri(server, "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString("a chair\na lamp\n"))
+                    .build();
+            HttpResponse<String> response = send(post);
+            assertEquals(200, response.statusCode());
+            List<String> chair = Arrays.asList("a", "chair");
+            assertEquals(
+                    scorer.logProbability(chair) + " " + scorer.perplexity(chair) + "\n"
+                            + "-Infinity Infinity\n",
+                    response.body()
+            );
+            HttpRequest empty = HttpRequest.newBuilder(uri(server, "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString(""))
+                    .build();
+            assertEquals(400, send(empty).statusCode());
+            HttpResponse<String> wrongMethod = get(server, "/score");
+            assertEquals(405, wrongMethod.statusCode());
+            assertEquals(Optional.of("POST"), wrongMethod.headers().firstValue("Allow"));
+        }
+    }
+
+    @Test
+    public void testScoreLimits() throws IOException, InterruptedException {
+        try (TwitterBotServer server = start(illustrativeExample())) {
+            HttpRequest tooManyLines = HttpRequest.newBuilder(uri(server, "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "a chair\n".repeat(TwitterBotServer.MAX_TWEETS + 1)
+                    ))
+                    .build();
+            assertEquals(413, send(tooManyLines).statusCode());
+            HttpRequest mostLines = HttpRequest.newBuilder(uri(server, "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "a chair\n".repeat(TwitterBotServer.MAX_TWEETS)
+                    ))
+                    .build();
+            assertEquals(200, send(mostLines).statusCode());
+            HttpRequest tooLarge = HttpRequest.newBuilder(uri(server, "/score"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "a".repeat(TwitterBotServer.MAX_BODY_BYTES + 1)
+                    ))
+                    .build();
+            assertEquals(413, send(tooLarge).statusCode());
+        }
+    }
+
+    @Test
+    public void testParseQuery() {
+        assertEquals(Collections.emptyMap(), TwitterBotServer.parseQuery(null));
+        Map<String, String> expected = new HashMap<>();
+        expected.put("n", "3");
+        expected.put("seed", "");
+        expected.put("a b", "c&d");
+        assertEquals(expected, TwitterBotServer.parseQuery("n=2&n=3&seed&a+b=c%26d"));
+    }
+
+    @Test
+    public void testLoadTestClient() throws IOException, InterruptedException {
+        try (TwitterBotServer server = start(illustrativeExample())) {
+            HttpRequest request = HttpRequest.newBuilder(uri(server, "/tweet?n=3")).build();
+            LoadTestClient.Report report = new LoadTestClient().run(request, 200, 20);
+            assertEquals(200, report.getRequestCount());
+            assertEquals(0, report.getFailureCount());
+            assertTrue(report.getThroughput() > 0);
+            assertTrue(report.percentileNanos(0) <= report.percentileNanos(50));
+            assertTrue(report.percentileNanos(50) <= report.percentileNanos(99));
+            assertTrue(report.percentileNanos(99) <= report.percentileNanos(100));
+        }
+    }
+
+}
@@ -165,6 +165,18 @@ public class TwitterBotTest {
                 tb.generateTweet(new ListNumberGenerator(walk)));
     }
 
-
+    @Test
+    public void testTrainOnRawTweetsMatchesTrainingData() {
+        List<String> rawTweets = Arrays.asList(
+                "A table, and a chair!", "", "see https://example.com now", "and a banana?"
+        );
+        MarkovChain expected = new MarkovChain(TweetParser.rawTweetsToTrainingData(rawTweets));
+        MarkovChain streamed = new MarkovChain();
+        TweetParser.trainOnRawTweets(rawTweets.iterator(), streamed);
+        assertEquals(expected.toString(), streamed.toString());
+        CompactChainBuilder builder = new CompactChainBuilder();
+        TweetParser.trainOnRawTweets(rawTweets.iterator(), builder);
+        assertEquals(expected.toString(), builder.build().toString());
+    }
 
 }
@@ -0,0 +1,54 @@
+package org.cis1200;
+
+/**
+ * Encodes {@code int}s as variable-length integers: zig-zag encoded, so that
+ * small negative numbers stay small, and then written 7 bits per byte, least
+ * significant group first, with the high bit of each byte set if more bytes
+ * follow. Numbers below 64 in magnitude take one byte.
+ */
+final class VarInts {
+
+    /** the most bytes an encoded {@code int} takes */
+    static final int MAX_BYTES = 5;
+
+    private VarInts() {
+    }
+
+    /**
+     * Writes n to buffer at position, which must have room for
+     * {@link #MAX_BYTES} bytes.
+     *
+     * @return the position after the last byte written
+     */
+    static int write(byte[] buffer, int position, int n) {
+        int zigzag = (n << 1) ^ (n >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+        return position;
+    }
+
+    /**
+     * Reads the number at {@code position[0]} of buffer, and advances
+     * {@code position[0]} past it.
+     *
+     * @throws IllegalArgumentException if the number is truncated or longer
+     *                                  than {@link #MAX_BYTES}
+     */
+    static int read(byte[] buffer, int[] position, int limit) {
+        int zigzag = 0;
+        for (int shift = 0; shift < 7 * MAX_BYTES; shift += 7) {
+            if (position[0] >= limit) {
+                throw new IllegalArgumentException("truncated number");
+            }
+            byte b = buffer[position[0]++];
+            zigzag |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("malformed number");
+    }
+}
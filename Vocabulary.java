@@ -0,0 +1,77 @@
+package org.cis1200;
+
+import java.util.*;
+
+/**
+ * A dictionary that interns tokens as dense {@code int} IDs. The first token
+ * interned gets ID 0, the next new one gets ID 1, and so on, so IDs can be
+ * used directly as indices into primitive arrays.
+ * <p>
+ * Once a token has an ID, code that works with IDs never needs to compare or
+ * hash the {@code String} again.
+ */
+class Vocabulary {
+
+    /** returned by {@link #id} for tokens that have not been interned */
+    static final int MISSING = -1;
+
+    // INVARIANT: ids.get(tokens.get(i)) == i for every i
+    private final Map<String, Integer> ids;
+    private final List<String> tokens;
+
+    /**
+     * Constructs an empty vocabulary.
+     */
+    public Vocabulary() {
+        this.ids = new HashMap<>();
+        this.tokens = new ArrayList<>();
+    }
+
+    /**
+     * Returns the ID of the given token, assigning it the next free ID if it
+     * has not been seen before.
+     *
+     * @param token - the token to intern
+     * @return the token's ID
+     * @throws IllegalArgumentException when token is null
+     */
+    public int intern(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("token cannot be null.");
+        }
+        Integer id = ids.get(token);
+        if (id == null) {
+            id = tokens.size();
+            ids.put(token, id);
+            tokens.add(token);
+        }
+        return id;
+    }
+
+    /**
+     * Looks up the ID of a token without interning it.
+     *
+     * @param token - the token to look up
+     * @return the token's ID, or {@link #MISSING} if it has not been interned
+     */
+    public int id(String token) {
+        Integer id = token == null ? null : ids.get(token);
+        return id == null ? MISSING : id;
+    }
+
+    /**
+     * @param id - a token ID
+     * @return the token with the given ID
+     * @throws IndexOutOfBoundsException if no token has that ID
+     */
+    public String token(int id) {
+        return tokens.get(id);
+    }
+
+    /**
+     * @return the number of interned tokens, which is also the next free ID
+     */
+    public int size() {
+        return tokens.size();
+    }
+}
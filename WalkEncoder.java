@@ -0,0 +1,126 @@
+package org.cis1200;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * Converts token sequences into their walk choices (see
+ * {@link MarkovChain#findWalkChoices}) in bulk.
+ * <p>
+ * The index of every start token and every bigram of a
+ * {@link CompactMarkovChain} is computed once, up front, and stored in
+ * primitive tables keyed by token ID. Encoding a sequence is then a single
+ * pass over it, with one hash lookup per token and no searching of the
+ * distributions, so a sequence of {@code n} tokens is encoded in {@code O(n)}
+ * time. The given sequences are never modified.
+ * <p>
+ * An encoder is immutable once built, so it can be shared between threads;
+ * {@link #encodeAll} uses this to encode a whole corpus in parallel.
+ */
+public class WalkEncoder {
+
+    private final Vocabulary vocabulary;
+    private final int endId;
+    // the index that picks each start token, by ID, or MISSING
+    private final int[] startIndex;
+    // the index that picks each bigram, keyed by edgeKey(from, to)
+    private final LongIntHashMap edgeIndex;
+
+    /**
+     * Precomputes the walk choices of every step of the given chain.
+     *
+     * @param chain - the chain whose walks to encode (assumed not null)
+     */
+    public WalkEncoder(CompactMarkovChain chain) {
+        this.vocabulary = chain.vocabulary;
+        this.endId = chain.endId;
+        this.startIndex = new int[vocabulary.size()];
+        Arrays.fill(startIndex, Vocabulary.MISSING);
+        for (int i = 0; i < chain.startIds.length; i++) {
+            startIndex[chain.startIds[i]] = i == 0 ? 0 : chain.startCumulative[i - 1];
+        }
+        this.edgeIndex = new LongIntHashMap(chain.successors.length);
+        for (int id = 0; id < vocabulary.size(); id++) {
+            int from = chain.rowStart[id];
+            for (int i = from; i < chain.rowStart[id + 1]; i++) {
+                edgeIndex.put(
+                        edgeKey(id, chain.successors[i]),
+                        i == from ? 0 : chain.cumulative[i - 1]
+                );
+            }
+        }
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    /**
+     * Encodes one sequence of tokens as the numbers that make
+     * {@link CompactMarkovChain#getWalk} (or {@link MarkovChain#getWalk} on the
+     * chain that was compacted) produce exactly those tokens. The result has
+     * one more entry than the sequence, for the final step to
+     * {@code END_TOKEN}.
+     *
+     * @param tokens - an ordered list of tokens that the chain should generate
+     * @return the walk choices, in order
+     * @throws IllegalArgumentException when {@code tokens} is null or empty,
+     *                                  or is not a walk of the chain ending in
+     *                                  {@code END_TOKEN}
+     */
+    public int[] encode(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("Invalid empty or null tokens");
+        }
+        int[] choices = new int[tokens.size() + 1];
+        int step = 0;
+        int curr = Vocabulary.MISSING;
+        for (String token : tokens) {
+            int next = vocabulary.id(token);
+            choices[step] = step == 0 ? startChoice(next) : edgeChoice(curr, next);
+            curr = next;
+            step++;
+        }
+        choices[step] = edgeChoice(curr, endId);
+        return choices;
+    }
+
+    private int startChoice(int id) {
+        int index = id == Vocabulary.MISSING ? Vocabulary.MISSING : startIndex[id];
+        if (index == Vocabulary.MISSING) {
+            throw new IllegalArgumentException("token is not a start token of the chain");
+        }
+        return index;
+    }
+
+    private int edgeChoice(int from, int to) {
+        // END_TOKEN has no successors, so nothing may follow it
+        int index = from == Vocabulary.MISSING || to == Vocabulary.MISSING || from == endId
+                ? LongIntHashMap.MISSING
+                : edgeIndex.get(edgeKey(from, to));
+        if (index == LongIntHashMap.MISSING) {
+            throw new IllegalArgumentException("token is not a valid step of the walk");
+        }
+        return index;
+    }
+
+    /**
+     * Encodes every sequence of a corpus, like {@link #encode}, in parallel
+     * on the common fork-join pool.
+     *
+     * @param corpus - the sequences to encode (assumed not null)
+     * @return the walk choices of each sequence, in the order of the corpus
+     * @throws IllegalArgumentException if any sequence cannot be encoded
+     */
+    public int[][] encodeAll(List<? extends List<String>> corpus) {
+        List<? extends List<String>> sequences = corpus instanceof RandomAccess
+                ? corpus : new ArrayList<>(corpus);
+        int[][] encoded = new int[sequences.size()][];
+        IntStream.range(0, encoded.length).parallel()
+                .forEach(i -> encoded[i] = encode(sequences.get(i)));
+        return encoded;
+    }
+}
@@ -0,0 +1,105 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for WalkEncoder and the non-destructive findWalkChoices */
+public class WalkEncoderTest {
+
+    private static List<Integer> boxed(int[] choices) {
+        List<Integer> l = new ArrayList<>();
+        for (int c : choices) {
+            l.add(c);
+        }
+        return l;
+    }
+
+    // random walks of mc, as token lists
+    private static List<List<String>> walks(MarkovChain mc, int count) {
+        List<List<String>> walks = new ArrayList<>();
+        for (long seed = 0; seed < count; seed++) {
+            List<String> tokens = new ArrayList<>();
+            Iterator<String> it = mc.getWalk(new RandomNumberGenerator(seed));
+            while (it.hasNext()) {
+                tokens.add(it.next());
+            }
+            walks.add(tokens);
+        }
+        return walks;
+    }
+
+    @Test
+    public void testFindWalkChoicesLeavesInputUntouched() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        List<String> tokens = Collections.unmodifiableList(Arrays.asList("a", "chair"));
+        assertEquals(Arrays.asList(0, 0, 0), mc.findWalkChoices(tokens));
+        assertEquals(Arrays.asList("a", "chair"), tokens);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> mc.findWalkChoices(Arrays.asList("a", "lamp"))
+        );
+        // "chair" has no successors but END_TOKEN, and "a" cannot end a walk
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> mc.findWalkChoices(Arrays.asList("a", "chair", "and"))
+        );
+        assertThrows(IllegalArgumentException.class, () -> mc.findWalkChoices(Arrays.asList("a")));
+    }
+
+    @Test
+    public void testEncodeMatchesFindWalkChoices() {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(1100, 300, 40);
+        WalkEncoder encoder = new WalkEncoder(mc.compact());
+        for (List<String> walk : walks(mc, 200)) {
+            List<Integer> expected = mc.findWalkChoices(walk);
+            assertEquals(expected, boxed(encoder.encode(walk)));
+        }
+    }
+
+    @Test
+    public void testEncodeAllInParallel() {
+        MarkovChain mc = CompactMarkovChainTest.randomChain(1300, 300, 40);
+        CompactMarkovChain cmc = mc.compact();
+        List<List<String>> corpus = new LinkedList<>(walks(mc, 3000));
+        int[][] encoded = new WalkEncoder(cmc).encodeAll(corpus);
+        assertEquals(corpus.size(), encoded.length);
+        int i = 0;
+        for (List<String> walk : corpus) {
+            List<String> replayed = new ArrayList<>();
+            Iterator<String> it = cmc.getWalk(new ListNumberGenerator(encoded[i]));
+            while (it.hasNext()) {
+                replayed.add(it.next());
+            }
+            assertEquals(walk, replayed);
+            i++;
+        }
+    }
+
+    @Test
+    public void testEncodeInvalid() {
+        MarkovChain mc = new MarkovChain();
+        mc.addSequence(Arrays.asList("a", "table", "and", "a", "chair").iterator());
+        WalkEncoder encoder = new WalkEncoder(mc.compact());
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(null));
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(new ArrayList<>()));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> encoder.encode(Arrays.asList("table", "and"))
+        );
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(Arrays.asList("a")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> encoder.encode(Arrays.asList("a", "chair", MarkovChain.END_TOKEN))
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> encoder.encodeAll(Arrays.asList(
+                        Arrays.asList("a", "chair"), Arrays.asList("a", "lamp")
+                ))
+        );
+    }
+}
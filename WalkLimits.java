@@ -0,0 +1,82 @@
+package org.cis1200;
+
+/**
+ * Limits on the length of a walk, for use with
+ * {@link MarkovModel#getWalk(NumberGenerator, WalkLimits)}.
+ * <p>
+ * A walk stops once it has returned {@code maxTokens} tokens, or before it
+ * would return a token that takes it over {@code maxChars} characters. The
+ * characters of a walk are counted as the lengths of its tokens plus one
+ * separator between each pair of tokens, which is never less than the length
+ * of the tweet that {@link TwitterBot} makes of them.
+ * <p>
+ * Hard limits cut walks off in the middle of a sentence. To avoid that, a
+ * walk can also be <i>steered</i>: once it has used {@code steerAt} of either
+ * budget (for example 0.8 for 80%), it stops right after the first token that
+ * can end a walk of the model, so the tokens so far form a complete tweet.
+ * <p>
+ * Instances are immutable.
+ */
+public class WalkLimits {
+
+    /** no limits at all: walks run until {@code END_TOKEN} */
+    public static final WalkLimits NONE = new WalkLimits(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final int maxTokens;
+    private final int maxChars;
+    private final double steerAt;
+
+    /**
+     * Constructs limits without steering.
+     *
+     * @param maxTokens - the most tokens a walk may return
+     * @param maxChars  - the most characters a walk may return
+     * @throws IllegalArgumentException if either limit is not positive
+     */
+    public WalkLimits(int maxTokens, int maxChars) {
+        this(maxTokens, maxChars, 1);
+    }
+
+    /**
+     * Constructs limits that steer walks toward their end once the given
+     * fraction of either budget is used.
+     *
+     * @param maxTokens - the most tokens a walk may return
+     * @param maxChars  - the most characters a walk may return
+     * @param steerAt   - the fraction of a budget after which to steer, in
+     *                  {@code (0, 1]}; 1 disables steering
+     * @throws IllegalArgumentException if either limit is not positive or
+     *                                  steerAt is out of range
+     */
+    public WalkLimits(int maxTokens, int maxChars, double steerAt) {
+        if (maxTokens <= 0 || maxChars <= 0) {
+            throw new IllegalArgumentException("limits must be positive");
+        }
+        if (!(steerAt > 0 && steerAt <= 1)) {
+            throw new IllegalArgumentException("steerAt must be in (0, 1]");
+        }
+        this.maxTokens = maxTokens;
+        this.maxChars = maxChars;
+        this.steerAt = steerAt;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    public int getMaxChars() {
+        return maxChars;
+    }
+
+    public double getSteerAt() {
+        return steerAt;
+    }
+
+    /**
+     * @return whether a walk with this many tokens and characters should stop
+     *         at the next token that can end it
+     */
+    boolean shouldSteer(int tokens, long chars) {
+        return steerAt < 1 && (tokens >= steerAt * maxTokens || chars >= steerAt * maxChars);
+    }
+}
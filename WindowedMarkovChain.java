@@ -0,0 +1,134 @@
+package org.cis1200;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link MarkovChain} trained on a sliding window of a stream of tweets.
+ * <p>
+ * Training data is grouped into <i>generations</i>. Each generation holds up
+ * to a fixed number of tweets, and the chain only remembers the most recent
+ * generations: once a new generation starts and there are more than the
+ * configured number, the counts of the oldest one are subtracted (see
+ * {@link MarkovChain#subtract}), and any token or bigram that no tweet in the
+ * window uses any more is evicted. Memory therefore depends on the size of
+ * the window rather than on how many tweets have been seen, and walks only
+ * reflect recent tweets.
+ * <p>
+ * Generations can also be ended explicitly with {@link #advance}, for
+ * example once per hour to get a window of the last few hours.
+ */
+public class WindowedMarkovChain implements MarkovModel {
+
+    private final int generations;
+    private final int tweetsPerGeneration;
+
+    // the counts of every tweet in the window
+    private final MarkovChain window = new MarkovChain();
+    // the counts of each generation in the window, oldest first; the last one
+    // is the current generation
+    private final Deque<MarkovChain> buckets = new ArrayDeque<>();
+    private int tweetsInCurrent = 0;
+
+    /**
+     * Constructs an empty chain.
+     *
+     * @param generations         - the number of generations in the window
+     * @param tweetsPerGeneration - the number of tweets after which a new
+     *                            generation is started automatically
+     * @throws IllegalArgumentException if either argument is not positive
+     */
+    public WindowedMarkovChain(int generations, int tweetsPerGeneration) {
+        if (generations <= 0 || tweetsPerGeneration <= 0) {
+            throw new IllegalArgumentException("window size must be positive");
+        }
+        this.generations = generations;
+        this.tweetsPerGeneration = tweetsPerGeneration;
+        buckets.addLast(new MarkovChain());
+    }
+
+    /**
+     * Adds a tweet to the current generation, like
+     * {@link MarkovChain#addSequence}. If the current generation is full, a
+     * new one is started first. Tweets with no tokens are ignored.
+     *
+     * @param tweet - the tokens of the tweet
+     * @throws IllegalArgumentException if tweet is null
+     */
+    public void addSequence(Iterator<String> tweet) {
+        if (tweet == null) {
+            throw new IllegalArgumentException("Param is null");
+        }
+        if (!tweet.hasNext()) {
+            return;
+        }
+        if (tweetsInCurrent == tweetsPerGeneration) {
+            advance();
+        }
+        List<String> tokens = new ArrayList<>();
+        tweet.forEachRemaining(tokens::add);
+        buckets.getLast().addSequence(tokens.iterator());
+        window.addSequence(tokens.iterator());
+        tweetsInCurrent++;
+    }
+
+    /**
+     * Ends the current generation and starts a new, empty one. If the window
+     * then holds more than the configured number of generations, the oldest
+     * one is dropped and its counts removed from the chain.
+     */
+    public void advance() {
+        buckets.addLast(new MarkovChain());
+        tweetsInCurrent = 0;
+        if (buckets.size() > generations) {
+            window.subtract(buckets.removeFirst());
+        }
+    }
+
+    /**
+     * @return the number of generations currently in the window, including
+     *         the current one
+     */
+    public int generationCount() {
+        return buckets.size();
+    }
+
+    /**
+     * @return the chain of every tweet in the window; it must not be modified
+     */
+    MarkovChain window() {
+        return window;
+    }
+
+    /**
+     * Freezes the current window into a {@link CompactMarkovChain}. Later
+     * calls to {@link #addSequence} and {@link #advance} do not affect it.
+     *
+     * @return a compact copy of the window
+     */
+    public CompactMarkovChain compact() {
+        return window.compact();
+    }
+
+    @Override
+    public Iterator<String> getWalk(NumberGenerator ng) {
+        return window.getWalk(ng);
+    }
+
+    @Override
+    public List<Integer> findWalkChoices(List<String> tokens) {
+        return window.findWalkChoices(tokens);
+    }
+
+    /**
+     * Prints the current window in the same format as
+     * {@link MarkovChain#toString()}.
+     */
+    @Override
+    public String toString() {
+        return window.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package org.cis1200;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/** Tests for WindowedMarkovChain and MarkovChain.subtract */
+public class WindowedMarkovChainTest {
+
+    private static Iterator<String> tweet(String s) {
+        return Arrays.asList(s.split(" ")).iterator();
+    }
+
+    private static MarkovChain chainOf(String... tweets) {
+        MarkovChain mc = new MarkovChain();
+        for (String t : tweets) {
+            mc.addSequence(tweet(t));
+        }
+        return mc;
+    }
+
+    @Test
+    public void testSubtractUndoesMerge() {
+        MarkovChain mc = chainOf("a table and a chair", "a banana !");
+        MarkovChain other = chainOf("the banana !", "a chair");
+        mc.merge(other);
+        mc.subtract(other);
+        assertEquals(chainOf("a table and a chair", "a banana !").toString(), mc.toString());
+        // "the" is gone entirely
+        assertFalse(mc.bigramFrequencies.containsKey("the"));
+        assertThrows(IllegalArgumentException.class, () -> mc.subtract(other));
+        assertThrows(IllegalArgumentException.class, () -> mc.subtract(null));
+    }
+
+    @Test
+    public void testRejectedSubtractLeavesChainUnchanged() {
+        MarkovChain mc = chainOf("a table and a chair", "a banana !");
+        String before = mc.toString();
+        // the start token can be subtracted, but "a table" only occurs once
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> mc.subtract(chainOf("a table and a table"))
+        );
+        assertEquals(before, mc.toString());
+        // "chair" -> "!" was never recorded, though every key exists
+        assertThrows(IllegalArgumentException.class, () -> mc.subtract(chainOf("a chair !")));
+        assertEquals(before, mc.toString());
+    }
+
+    @Test
+    public void testOldGenerationsExpire() {
+        WindowedMarkovChain wmc = new WindowedMarkovChain(2, 2);
+        wmc.addSequence(tweet("old news"));
+        wmc.addSequence(tweet("old times"));
+        wmc.addSequence(tweet("a chair"));
+        wmc.addSequence(new ArrayList<String>().iterator());
+        wmc.addSequence(tweet("a table"));
+        assertEquals(2, wmc.generationCount());
+        assertEquals(
+                chainOf("old news", "old times", "a chair", "a table").toString(),
+                wmc.toString()
+        );
+        // starts a third generation, so the first one expires
+        wmc.addSequence(tweet("new chair"));
+        assertEquals(2, wmc.generationCount());
+        assertEquals(chainOf("a chair", "a table", "new chair").toString(), wmc.toString());
+        assertFalse(wmc.window().bigramFrequencies.containsKey("old"));
+        assertFalse(wmc.window().bigramFrequencies.containsKey("news"));
+
+        wmc.advance();
+        wmc.advance();
+        assertEquals(new MarkovChain().toString(), wmc.toString());
+        assertFalse(wmc.getWalk(new RandomNumberGenerator(1)).hasNext());
+    }
+
+    @Test
+    public void testWindowMatchesRecentTweets() {
+        Random r = new Random(1300);
+        List<String> stream = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            stream.add("w" + r.nextInt(30) + " w" + r.nextInt(30) + " .");
+        }
+        WindowedMarkovChain wmc = new WindowedMarkovChain(3, 40);
+        for (int i = 0; i < stream.size(); i++) {
+            wmc.addSequence(tweet(stream.get(i)));
+            // the window holds the full generations before this one, plus this
+            int start = Math.max(0, (i / 40 - 2) * 40);
+            MarkovChain expected = chainOf(stream.subList(start, i + 1).toArray(new String[0]));
+            assertEquals(expected.toString(), wmc.toString());
+        }
+    }
+
+    @Test
+    public void testInvalidWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowedMarkovChain(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new WindowedMarkovChain(3, 0));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new WindowedMarkovChain(3, 10).addSequence(null)
+        );
+    }
+}